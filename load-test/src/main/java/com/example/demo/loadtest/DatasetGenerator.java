@@ -0,0 +1,179 @@
+package com.example.demo.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seeds the database with SyntheticData students, their history and activity logs.
+ *
+ * One thread generates chunks of CSV rows, one COPY stream per table loads them in
+ * parallel. Queues between the two are bounded so memory stays flat for any size.
+ * Students get ids 1..students and student_sequence is moved past them afterwards.
+ */
+class DatasetGenerator {
+
+    private static final int CHUNK_STUDENTS = 10_000;
+    private static final byte[] END = new byte[0];
+
+    private final Options options;
+    private final long students;
+    private final SyntheticData data;
+
+    DatasetGenerator(Options options) {
+        this.options = options;
+        this.students = options.getLong("students", 1_000_000);
+        this.data = new SyntheticData(options.getLong("seed", 42),
+                (int) options.getLong("history-per-student", 3),
+                options.getDouble("deleted-ratio", 0.05));
+    }
+
+    static Connection connect(Options options) throws SQLException {
+        return DriverManager.getConnection(
+                options.get("jdbc-url", "jdbc:postgresql://localhost:5432/studentdb"),
+                options.get("db-user", "postgres"),
+                options.get("db-password", System.getenv().getOrDefault("PGPASSWORD", "postgres")));
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = connect(options); Statement statement = connection.createStatement()) {
+            prepare(statement);
+        }
+
+        List<Table> tables = List.of(
+                new Table("student (id, name, email, dob, deleted)"),
+                new Table("student_history (student_id, name, email, dob, operation, changed_at, changed_by)"),
+                new Table("activity_log (action, student_id, username, timestamp)"));
+        ExecutorService loaders = Executors.newFixedThreadPool(tables.size());
+        try {
+            List<Future<Long>> loaded = new ArrayList<>();
+            for (Table table : tables) {
+                loaded.add(loaders.submit(table::load));
+            }
+            generate(tables.get(0), tables.get(1), tables.get(2));
+            for (int i = 0; i < tables.size(); i++) {
+                System.out.printf("%-16s %,12d rows%n", tables.get(i).columns.split(" ")[0], loaded.get(i).get());
+            }
+        } finally {
+            loaders.shutdownNow();
+        }
+
+        try (Connection connection = connect(options); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setval('student_sequence', GREATEST((SELECT MAX(id) FROM student), 1))");
+            statement.execute("ANALYZE student");
+            statement.execute("ANALYZE student_history");
+            statement.execute("ANALYZE activity_log");
+        }
+        System.out.printf("Seeded %,d students in %.1f s%n", students, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void prepare(Statement statement) throws SQLException {
+        if (options.getBoolean("truncate")) {
+            statement.execute("TRUNCATE activity_log, student_history, student, student_archive RESTART IDENTITY");
+            return;
+        }
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT EXISTS (SELECT 1 FROM student) OR EXISTS (SELECT 1 FROM student_archive)")) {
+            rs.next();
+            if (rs.getBoolean(1)) {
+                throw new IllegalStateException("student or student_archive table is not empty, rerun with --truncate to replace its data");
+            }
+        }
+    }
+
+    private void generate(Table students, Table history, Table logs) throws InterruptedException {
+        StringBuilder studentRows = new StringBuilder();
+        StringBuilder historyRows = new StringBuilder();
+        StringBuilder logRows = new StringBuilder();
+        for (long id = 1; id <= this.students; id++) {
+            SyntheticData.GeneratedStudent generated = data.generate(id);
+            SyntheticData.StudentRow s = generated.student();
+            studentRows.append(s.id()).append(',').append(s.name()).append(',').append(s.email()).append(',')
+                    .append(s.dob()).append(',').append(s.deleted()).append('\n');
+            for (SyntheticData.HistoryRow h : generated.history()) {
+                historyRows.append(h.studentId()).append(',').append(h.name()).append(',').append(h.email()).append(',')
+                        .append(h.dob()).append(',').append(h.operation()).append(',').append(h.changedAt()).append(',')
+                        .append(h.changedBy()).append('\n');
+            }
+            for (SyntheticData.LogRow l : generated.logs()) {
+                logRows.append(l.action()).append(',').append(l.studentId()).append(',').append(l.username()).append(',')
+                        .append(l.timestamp()).append('\n');
+            }
+            if (id % CHUNK_STUDENTS == 0 || id == this.students) {
+                students.put(studentRows);
+                history.put(historyRows);
+                logs.put(logRows);
+                if (id % (CHUNK_STUDENTS * 10) == 0) {
+                    System.out.printf("generated %,d students%n", id);
+                }
+            }
+        }
+        students.finish();
+        history.finish();
+        logs.finish();
+    }
+
+    // One COPY ... FROM STDIN per table fed from a bounded queue of chunks
+    private class Table {
+        private final String columns;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(4);
+        private volatile Exception failure;
+
+        Table(String columns) {
+            this.columns = columns;
+        }
+
+        void put(StringBuilder rows) throws InterruptedException {
+            offer(rows.toString().getBytes(StandardCharsets.UTF_8));
+            rows.setLength(0);
+        }
+
+        void finish() throws InterruptedException {
+            offer(END);
+        }
+
+        // A failed loader never drains its queue, fail the generator instead of blocking forever
+        private void offer(byte[] chunk) throws InterruptedException {
+            while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    throw new IllegalStateException("Loading " + columns + " failed", failure);
+                }
+            }
+        }
+
+        long load() throws Exception {
+            try (Connection connection = connect(options)) {
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + columns + " FROM STDIN WITH (FORMAT csv)");
+                try {
+                    for (byte[] chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                        copy.writeToCopy(chunk, 0, chunk.length);
+                    }
+                    return copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+}
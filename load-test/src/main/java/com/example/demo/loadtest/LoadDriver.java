@@ -0,0 +1,375 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * Replays a weighted mix of API calls against a running DemoApplication.
+ *
+ * closed model: --users threads each wait for their response before the next call,
+ * optionally paced to one call per --pace. open model: calls start at a fixed --rate
+ * regardless of how fast the server answers.
+ *
+ * Latency is always measured from the time a call was supposed to start, not from
+ * when it was actually sent, so a stalled server shows up in the histogram instead
+ * of silently lowering the request rate (coordinated omission).
+ */
+class LoadDriver {
+
+    enum Operation { CREATE, UPDATE, DELETE, RESTORE, LIST, HISTORY }
+
+    private static final String DEFAULT_MIX = "create=10,update=25,delete=5,restore=5,list=5,history=50";
+
+    // Client side view of the seeded students, a student is only used by one call at a time
+    private static final int ACTIVE = 0;
+    private static final int DELETED = 1;
+    private static final int BUSY = 2;
+    private static final int PICK_ATTEMPTS = 100;
+
+    private final Options options;
+    private final String baseUrl;
+    private final Mix mix;
+    private final int students;
+    private final AtomicIntegerArray state;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> skipped = new EnumMap<>(Operation.class);
+    private final Histogram total = new ConcurrentHistogram(3);
+
+    private long measureStart;
+    private long end;
+
+    LoadDriver(Options options) {
+        this.options = options;
+        this.baseUrl = options.get("base-url", "http://localhost:8080/api/v1");
+        this.mix = Mix.parse(options.get("mix", DEFAULT_MIX));
+        this.students = (int) options.getLong("students", 1_000_000);
+        this.state = new AtomicIntegerArray(students + 1);
+        SyntheticData data = new SyntheticData(options.getLong("seed", 42), 0, options.getDouble("deleted-ratio", 0.05));
+        for (int id = 1; id <= students; id++) {
+            state.set(id, data.isDeleted(id) ? DELETED : ACTIVE);
+        }
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+            skipped.put(operation, new LongAdder());
+        }
+    }
+
+    void run() throws Exception {
+        Process app = startApplication();
+        try {
+            Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+            Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+            long start = System.nanoTime();
+            measureStart = start + warmup.toNanos();
+            end = measureStart + duration.toNanos();
+
+            String model = options.get("model", "closed");
+            System.out.printf("%s model, %s warmup, %s measured%n", model, warmup, duration);
+            switch (model) {
+                case "closed" -> runClosed(start);
+                case "open" -> runOpen(start);
+                default -> throw new IllegalArgumentException("Unknown --model " + model + ", expected closed or open");
+            }
+            report(model, duration);
+        } finally {
+            if (app != null) {
+                app.destroy();
+                app.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private void runClosed(long start) throws InterruptedException {
+        int users = (int) options.getLong("users", 50);
+        long pace = options.getDuration("pace", Duration.ZERO).toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            Thread thread = new Thread(() -> {
+                long intended = start;
+                while (intended < end) {
+                    if (pace > 0) {
+                        parkUntil(intended);
+                    } else {
+                        intended = System.nanoTime();
+                    }
+                    Call call = nextCall();
+                    if (call != null) {
+                        HttpResponse<Void> response = null;
+                        Throwable failure = null;
+                        try {
+                            response = client.send(call.request, HttpResponse.BodyHandlers.discarding());
+                        } catch (IOException e) {
+                            failure = e;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        complete(call, intended, response, failure);
+                    }
+                    // late calls keep their slot, the next one is due immediately
+                    intended = pace > 0 ? intended + pace : System.nanoTime();
+                }
+            }, "user-" + u);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void runOpen(long start) throws InterruptedException {
+        double rate = options.getDouble("rate", 200);
+        long interval = (long) (1_000_000_000L / rate);
+        // bounds client memory if the server stalls, latency is still counted from the schedule
+        Semaphore inFlight = new Semaphore((int) options.getLong("max-in-flight", 10_000));
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            Call call = nextCall();
+            if (call == null) {
+                continue;
+            }
+            inFlight.acquire();
+            CompletableFuture<?> future = client.sendAsync(call.request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.release();
+                        complete(call, intended, response, failure);
+                    });
+            pending.add(future);
+            if (pending.size() > 10_000) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        for (CompletableFuture<?> future : pending) {
+            future.exceptionally(failure -> null).join();
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private record Call(Operation operation, int studentId, HttpRequest request) {
+    }
+
+    // Picks the next operation and a student it applies to, null if none is available
+    private Call nextCall() {
+        Operation operation = mix.next(ThreadLocalRandom.current());
+        long n = sequence.incrementAndGet();
+        return switch (operation) {
+            case CREATE -> new Call(operation, 0, request("/student")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Load " + n + "\",\"email\":\"load-" + runId + "-" + n
+                            + "@load.test\",\"dob\":\"2000-01-01\"}"))
+                    .build());
+            case UPDATE -> withStudent(operation, ACTIVE, id -> request("/student/" + id + "?name=Load%20" + n).PUT(noBody()).build());
+            case DELETE -> withStudent(operation, ACTIVE, id -> request("/student/" + id).DELETE().build());
+            case RESTORE -> withStudent(operation, DELETED, id -> request("/student/" + id + "/restore").PUT(noBody()).build());
+            case LIST -> new Call(operation, 0, request(options.get("list-path", "/student?fields=id,name")).GET().build());
+            case HISTORY -> new Call(operation, 0, request("/student/" + (1 + ThreadLocalRandom.current().nextInt(students)) + "/history")
+                    .GET().build());
+        };
+    }
+
+    private Call withStudent(Operation operation, int required, IntFunction<HttpRequest> request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < PICK_ATTEMPTS; attempt++) {
+            int id = 1 + random.nextInt(students);
+            if (state.compareAndSet(id, required, BUSY)) {
+                return new Call(operation, id, request.apply(id));
+            }
+        }
+        skipped.get(operation).increment();
+        return null;
+    }
+
+    private void complete(Call call, long intended, HttpResponse<?> response, Throwable failure) {
+        long now = System.nanoTime();
+        boolean ok = failure == null && response.statusCode() < 400;
+        if (call.studentId != 0) {
+            int after = switch (call.operation) {
+                case DELETE -> ok ? DELETED : ACTIVE;
+                case RESTORE -> ok ? ACTIVE : DELETED;
+                default -> ACTIVE;
+            };
+            state.set(call.studentId, after);
+        }
+        if (intended < measureStart) {
+            return;
+        }
+        long micros = Math.max(0, (now - intended) / 1_000);
+        latencies.get(call.operation).recordValue(micros);
+        total.recordValue(micros);
+        if (!ok) {
+            errors.get(call.operation).increment();
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private static HttpRequest.BodyPublisher noBody() {
+        return HttpRequest.BodyPublishers.noBody();
+    }
+
+    private void report(String model, Duration duration) throws IOException {
+        File file = new File(options.get("report", "load-report.txt"));
+        try (PrintStream out = new PrintStream(file, "UTF-8")) {
+            out.printf("Load test %s against %s%n", LocalDateTime.now(), baseUrl);
+            out.printf("model=%s users=%s pace=%s rate=%s duration=%s mix=%s%n%n", model,
+                    options.get("users", "50"), options.get("pace", "0ms"), options.get("rate", "200"),
+                    duration, options.get("mix", DEFAULT_MIX));
+            summary(out, duration);
+            out.printf("%nAll operations, latency in ms (corrected for coordinated omission)%n");
+            total.outputPercentileDistribution(out, 1000.0);
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = latencies.get(operation);
+                if (histogram.getTotalCount() > 0) {
+                    out.printf("%n%s, latency in ms%n", operation);
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        summary(System.out, duration);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private void summary(PrintStream out, Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        out.printf("%-8s %9s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "op", "calls", "ops/s", "errors", "error%", "skipped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            row(out, operation.name().toLowerCase(), latencies.get(operation), errors.get(operation).sum(),
+                    skipped.get(operation).sum(), seconds);
+        }
+        long allErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        long allSkipped = skipped.values().stream().mapToLong(LongAdder::sum).sum();
+        row(out, "total", total, allErrors, allSkipped, seconds);
+    }
+
+    private static void row(PrintStream out, String label, Histogram histogram, long errors, long skipped, double seconds) {
+        long count = histogram.getTotalCount();
+        out.printf("%-8s %9d %9.1f %8d %7.2f%% %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                label, count, count / seconds, errors, count == 0 ? 0.0 : 100.0 * errors / count, skipped,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    // Starts --app-jar and waits until it answers, null when testing an already running service
+    private Process startApplication() throws Exception {
+        String jar = options.get("app-jar", null);
+        if (jar == null) {
+            return null;
+        }
+        File log = new File("load-test-app.log");
+        Process process = new ProcessBuilder("java", "-jar", jar)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        HttpRequest ready = request("/student/stats?days=1").GET().build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited during startup, see " + log.getAbsolutePath());
+            }
+            try {
+                if (client.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    System.out.println("Application started, output in " + log.getAbsolutePath());
+                    return process;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        process.destroy();
+        throw new IllegalStateException("Application did not start within 2 minutes, see " + log.getAbsolutePath());
+    }
+
+    // create=10,update=25,... as cumulative weights
+    static final class Mix {
+        private final Operation[] operations;
+        private final int[] cumulative;
+
+        private Mix(Operation[] operations, int[] cumulative) {
+            this.operations = operations;
+            this.cumulative = cumulative;
+        }
+
+        static Mix parse(String spec) {
+            List<Operation> operations = new ArrayList<>();
+            List<Integer> cumulative = new ArrayList<>();
+            int sum = 0;
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split("=");
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("Expected operation=weight in --mix but got " + part);
+                }
+                int weight = Integer.parseInt(kv[1].trim());
+                if (weight > 0) {
+                    sum += weight;
+                    operations.add(Operation.valueOf(kv[0].trim().toUpperCase()));
+                    cumulative.add(sum);
+                }
+            }
+            if (sum == 0) {
+                throw new IllegalArgumentException("--mix needs at least one positive weight");
+            }
+            return new Mix(operations.toArray(new Operation[0]), cumulative.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        Operation next(Random random) {
+            int pick = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (pick < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            throw new IllegalStateException("unreachable");
+        }
+    }
+}
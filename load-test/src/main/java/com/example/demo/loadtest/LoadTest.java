@@ -0,0 +1,40 @@
+package com.example.demo.loadtest;
+
+/**
+ * Entry point of the load-test module.
+ *
+ * <pre>
+ * java -jar target/demo-load-test.jar seed --students=1000000 --truncate
+ * java -jar target/demo-load-test.jar run --model=open --rate=500 --duration=60s
+ * </pre>
+ *
+ * See DatasetGenerator and LoadDriver for all options.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        Options options = new Options(args, 1);
+        switch (args[0]) {
+            case "seed" -> new DatasetGenerator(options).run();
+            case "run" -> new LoadDriver(options).run();
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage:
+                  seed [--students=1000000] [--history-per-student=3] [--deleted-ratio=0.05] [--seed=42]
+                       [--truncate] [--jdbc-url=jdbc:postgresql://localhost:5432/studentdb]
+                       [--db-user=postgres] [--db-password=...]
+                  run  [--base-url=http://localhost:8080/api/v1] [--model=closed|open]
+                       [--users=50] [--pace=0ms] [--rate=200] [--max-in-flight=10000] [--duration=60s] [--warmup=10s]
+                       [--mix=create=10,update=25,delete=5,restore=5,list=5,history=50]
+                       [--list-path=/student?fields=id,name] [--students=1000000] [--deleted-ratio=0.05]
+                       [--seed=42] [--report=load-report.txt] [--app-jar=../target/demo-0.0.1-SNAPSHOT.jar]""");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.loadtest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic students with their history and activity logs.
+ *
+ * Everything about student {@code id} is derived from a random stream seeded with
+ * (seed, id) only, so any student can be regenerated on its own and the dataset
+ * generator and the load driver agree on which students start out deleted.
+ */
+final class SyntheticData {
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bob", "Carol", "David", "Emma", "Farid", "Grace", "Hiro", "Isabel", "Jamal",
+            "Kira", "Liam", "Maya", "Noah", "Olga", "Pedro", "Quinn", "Rosa", "Sven", "Tara",
+            "Uma", "Victor", "Wen", "Ximena", "Yusuf", "Zoe"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Nguyen", "Garcia", "Kim", "Okafor", "Silva", "Müller", "Rossi", "Kowalski",
+            "Haddad", "Tanaka", "Brown", "Novak", "Ivanova", "Lopez", "Chen", "Singh", "Dubois", "Cohen"};
+
+    private static final LocalDate FIRST_DOB = LocalDate.of(1960, 1, 1);
+    private static final int DOB_RANGE_DAYS = 48 * 365;
+    private static final LocalDateTime FIRST_CREATED = LocalDateTime.of(2022, 1, 1, 0, 0);
+    private static final long CREATED_RANGE_SECONDS = 2L * 365 * 24 * 3600;
+    // What the application writes to changed_by and username, see StudentHistory and ActivityLog
+    private static final String USER = "admin";
+
+    record StudentRow(long id, String name, String email, LocalDate dob, boolean deleted) {
+    }
+
+    record HistoryRow(long studentId, String name, String email, LocalDate dob,
+                      String operation, LocalDateTime changedAt, String changedBy) {
+    }
+
+    record LogRow(String action, long studentId, String username, LocalDateTime timestamp) {
+    }
+
+    record GeneratedStudent(StudentRow student, List<HistoryRow> history, List<LogRow> logs) {
+    }
+
+    private final long seed;
+    private final int historyPerStudent;
+    private final double deletedRatio;
+
+    SyntheticData(long seed, int historyPerStudent, double deletedRatio) {
+        this.seed = seed;
+        this.historyPerStudent = historyPerStudent;
+        this.deletedRatio = deletedRatio;
+    }
+
+    // Cheap check used by the load driver, matches generate(id).student().deleted()
+    boolean isDeleted(long id) {
+        return random(id).nextDouble() < deletedRatio;
+    }
+
+    GeneratedStudent generate(long id) {
+        SplittableRandom random = random(id);
+        boolean deleted = random.nextDouble() < deletedRatio; // must stay the first draw, see isDeleted
+
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String name = first + " " + last;
+        String email = email(first, last, id, 0);
+        LocalDate dob = FIRST_DOB.plusDays(random.nextInt(DOB_RANGE_DAYS));
+        LocalDateTime time = FIRST_CREATED.plusSeconds(random.nextLong(CREATED_RANGE_SECONDS));
+
+        int updates = historyPerStudent == 0 ? 0 : random.nextInt(2 * historyPerStudent + 1);
+        List<HistoryRow> history = new ArrayList<>(updates + 1);
+        List<LogRow> logs = new ArrayList<>(updates + 2);
+        logs.add(new LogRow("CREATE", id, USER, time));
+
+        for (int i = 1; i <= updates; i++) {
+            time = time.plusMinutes(1 + random.nextInt(60 * 24 * 30));
+            // history keeps the values from before the change
+            history.add(new HistoryRow(id, name, email, dob, "UPDATE", time, USER));
+            logs.add(new LogRow("UPDATE", id, USER, time));
+            if (random.nextBoolean()) {
+                last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                name = first + " " + last;
+            } else {
+                email = email(first, last, id, i);
+            }
+        }
+        if (deleted) {
+            time = time.plusMinutes(1 + random.nextInt(60 * 24 * 30));
+            history.add(new HistoryRow(id, name, email, dob, "DELETE", time, USER));
+            logs.add(new LogRow("DELETE", id, USER, time));
+        }
+        return new GeneratedStudent(new StudentRow(id, name, email, dob, deleted), history, logs);
+    }
+
+    // The id keeps emails unique, the version keeps them unique across updates
+    private static String email(String first, String last, long id, int version) {
+        String local = (first + "." + last).toLowerCase().replace("ü", "u") + "." + id;
+        return version == 0 ? local + "@example.edu" : local + "." + version + "@example.edu";
+    }
+
+    private SplittableRandom random(long id) {
+        // SplitMix64 finalizer so neighbouring ids get unrelated streams
+        long z = seed + id * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+}
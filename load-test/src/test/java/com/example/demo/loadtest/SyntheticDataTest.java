@@ -0,0 +1,74 @@
+package com.example.demo.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the synthetic dataset and the operation mix
+ */
+public class SyntheticDataTest {
+
+    @Test
+    void shouldGenerateTheSameStudentForTheSameSeed() {
+        // Given
+        SyntheticData first = new SyntheticData(42, 3, 0.05);
+        SyntheticData second = new SyntheticData(42, 3, 0.05);
+
+        // Then
+        for (long id = 1; id <= 1_000; id++) {
+            assertThat(second.generate(id)).isEqualTo(first.generate(id));
+        }
+        assertThat(new SyntheticData(43, 3, 0.05).generate(1)).isNotEqualTo(first.generate(1));
+    }
+
+    @Test
+    void shouldAgreeOnDeletedStudentsAndKeepEmailsUnique() {
+        // Given
+        SyntheticData data = new SyntheticData(7, 3, 0.2);
+        Set<String> emails = new HashSet<>();
+        int deleted = 0;
+
+        // When
+        for (long id = 1; id <= 10_000; id++) {
+            SyntheticData.GeneratedStudent generated = data.generate(id);
+            assertThat(data.isDeleted(id)).isEqualTo(generated.student().deleted());
+            assertThat(emails.add(generated.student().email())).isTrue();
+            // CREATE, one UPDATE per history update and DELETE when deleted
+            assertThat(generated.logs()).hasSize(generated.history().size() + 1);
+            if (generated.student().deleted()) {
+                deleted++;
+                assertThat(generated.history().get(generated.history().size() - 1).operation()).isEqualTo("DELETE");
+            }
+        }
+
+        // Then
+        assertThat(deleted).isBetween(1_800, 2_200);
+    }
+
+    @Test
+    void shouldPickOperationsByWeight() {
+        // Given
+        LoadDriver.Mix mix = LoadDriver.Mix.parse("create=1, history=3, list=0");
+        Random random = new Random(1);
+        int history = 0;
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            LoadDriver.Operation operation = mix.next(random);
+            assertThat(operation).isIn(LoadDriver.Operation.CREATE, LoadDriver.Operation.HISTORY);
+            if (operation == LoadDriver.Operation.HISTORY) {
+                history++;
+            }
+        }
+
+        // Then
+        assertThat(history).isBetween(7_200, 7_800);
+        assertThatThrownBy(() -> LoadDriver.Mix.parse("create")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -2,6 +2,7 @@
 TRUNCATE TABLE activity_log RESTART IDENTITY CASCADE;
 TRUNCATE TABLE student_history RESTART IDENTITY CASCADE;
 TRUNCATE TABLE student RESTART IDENTITY CASCADE;
+TRUNCATE TABLE student_archive RESTART IDENTITY CASCADE;
 
 -- Reset all sequences to start from 1
 ALTER SEQUENCE student_sequence RESTART WITH 1;
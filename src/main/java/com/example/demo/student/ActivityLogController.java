@@ -1,24 +1,41 @@
 package com.example.demo.student;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "/api/v1/activity-logs")
 public class ActivityLogController {
 
     private final ActivityLogRepository activityLogRepository;
+    private final ProjectionRepository projectionRepository;
 
     @Autowired
-    public ActivityLogController(ActivityLogRepository activityLogRepository) {
+    public ActivityLogController(ActivityLogRepository activityLogRepository,
+                                 ProjectionRepository projectionRepository) {
         this.activityLogRepository = activityLogRepository;
+        this.projectionRepository = projectionRepository;
     }
 
     @GetMapping
     public List<ActivityLog> getAllLogs() {
         return activityLogRepository.findAll();
     }
+
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getLogFields(@RequestParam String fields) {
+        try {
+            return projectionRepository.findActivityLogs(fields);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
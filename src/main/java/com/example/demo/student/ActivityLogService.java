@@ -7,14 +7,17 @@ import org.springframework.stereotype.Service;
 public class ActivityLogService {
 
     private final ActivityLogRepository activityLogRepository;
+    private final StudentStatistics studentStatistics;
 
     @Autowired
-    public ActivityLogService(ActivityLogRepository activityLogRepository) {
+    public ActivityLogService(ActivityLogRepository activityLogRepository, StudentStatistics studentStatistics) {
         this.activityLogRepository = activityLogRepository;
+        this.studentStatistics = studentStatistics;
     }
 
     public void logAction(String action, Long studentId) {
         ActivityLog log = new ActivityLog(action, studentId);
         activityLogRepository.save(log);
+        studentStatistics.actionLogged(action, log.getTimestamp());
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.demo.student;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+
+/**
+ * Snapshot and restore of the whole database, see DatabaseSnapshot.
+ *
+ * Requests must carry the X-Admin-Token header matching student.admin.token.
+ * Without a configured token the endpoints answer 404. While another dump or restore
+ * runs they answer 409, and a restore of an upload that is not a valid snapshot 400.
+ */
+@RestController
+@RequestMapping(path = "api/v1/admin")
+public class AdminController {
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final DatabaseSnapshot databaseSnapshot;
+    private final byte[] adminToken;
+
+    @Autowired
+    public AdminController(DatabaseSnapshot databaseSnapshot,
+                           @Value("${student.admin.token:}") String adminToken) {
+        this.databaseSnapshot = databaseSnapshot;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Streams the dump straight to the client, nothing is buffered on the server
+    @GetMapping("/snapshot")
+    public void dump(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                     HttpServletResponse response) throws IOException, SQLException, InterruptedException {
+        HttpStatus denied = checkToken(token);
+        if (denied != null) {
+            response.sendError(denied.value());
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.snapshot\"");
+        try {
+            databaseSnapshot.dump(response.getOutputStream());
+        } catch (DatabaseSnapshot.BusyException e) {
+            // thrown before anything is written
+            response.reset();
+            response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+        }
+    }
+
+    // Replaces all students, history, activity logs and archived students with the uploaded dump
+    @PostMapping(path = "/snapshot/restore", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<DatabaseSnapshot.RestoreResult> restore(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            InputStream body) throws IOException, SQLException, InterruptedException {
+        HttpStatus denied = checkToken(token);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        try {
+            return ResponseEntity.ok(databaseSnapshot.restore(body));
+        } catch (DatabaseSnapshot.BusyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        } catch (DatabaseSnapshot.InvalidSnapshotException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // null when the token is accepted
+    HttpStatus checkToken(String token) {
+        if (adminToken.length == 0) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            return HttpStatus.FORBIDDEN;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Binary response formats, picked by the Accept header:
+ * application/cbor, application/x-jackson-smile and application/vnd.student-columnar
+ * (see ColumnarCodec). JSON stays the default. Every /api/ response carries
+ * Vary: Accept, so shared caches keep the formats apart.
+ *
+ * In CBOR and Smile, LocalDate is written as an epoch day number and LocalDateTime as
+ * microseconds since 1970-01-01T00:00 (local time, no zone) instead of ISO strings.
+ */
+@Configuration
+public class BinaryFormatConfiguration implements WebMvcConfigurer {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType COLUMNAR = MediaType.parseMediaType(ColumnarCodec.MEDIA_TYPE);
+
+    private static final List<MediaType> BINARY_TYPES = List.of(MediaType.APPLICATION_CBOR, SMILE, COLUMNAR);
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper()));
+        converters.add(new ColumnarHttpMessageConverter());
+    }
+
+    public static ObjectMapper cborMapper() {
+        return Jackson2ObjectMapperBuilder.cbor().modulesToInstall(numericTimeModule()).build();
+    }
+
+    public static ObjectMapper smileMapper() {
+        return Jackson2ObjectMapperBuilder.smile().modulesToInstall(numericTimeModule()).build();
+    }
+
+    // The binary type the client prefers over JSON, or null when JSON (or anything) is fine
+    public static MediaType preferredBinaryType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isWildcardType() || mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (MediaType binary : BINARY_TYPES) {
+                if (binary.isCompatibleWith(mediaType)) {
+                    return binary;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static SimpleModule numericTimeModule() {
+        SimpleModule module = new SimpleModule("NumericTimeModule");
+        module.addSerializer(LocalDate.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeNumber(value.toEpochDay());
+            }
+        });
+        module.addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                return LocalDate.ofEpochDay(p.getLongValue());
+            }
+        });
+        module.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                gen.writeNumber(ColumnarCodec.toMicros(value));
+            }
+        });
+        module.addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                return ColumnarCodec.fromMicros(p.getLongValue());
+            }
+        });
+        return module;
+    }
+}
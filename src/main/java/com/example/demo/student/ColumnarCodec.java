@@ -0,0 +1,485 @@
+package com.example.demo.student;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Columnar binary encoding for lists of Student, StudentHistory and ActivityLog
+ * (media type application/vnd.student-columnar).
+ *
+ * Layout: "SCOL", version byte, schema byte, varint row count, then one block per
+ * column in schema order. Every column block starts with a presence bitmap (one bit
+ * per row, set when the value is not null) followed by the present values:
+ * <ul>
+ *     <li>ids: zigzag varint delta from the previous value</li>
+ *     <li>strings: a dictionary (varint size, varint length + UTF-8 per entry), then a varint index per value</li>
+ *     <li>dates: zigzag varint epoch day</li>
+ *     <li>date-times: zigzag varint delta in microseconds (local time, read as UTC)</li>
+ *     <li>ints: zigzag varint</li>
+ *     <li>booleans: a bitmap</li>
+ * </ul>
+ * Field names appear only once, in the schema, and never in the payload.
+ */
+public final class ColumnarCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.student-columnar";
+
+    private static final byte[] MAGIC = {'S', 'C', 'O', 'L'};
+    private static final int VERSION = 1;
+
+    private static final int EMPTY = 0;
+    private static final int STUDENT = 1;
+    private static final int STUDENT_HISTORY = 2;
+    private static final int ACTIVITY_LOG = 3;
+
+    private ColumnarCodec() {
+    }
+
+    // True if rows of this type can be encoded, that is one of the supported entity types
+    public static boolean canEncode(Class<?> rowType) {
+        return rowType == Student.class || rowType == StudentHistory.class || rowType == ActivityLog.class;
+    }
+
+    // True if the list only holds one of the supported entity types
+    public static boolean canEncode(List<?> rows) {
+        return rows.isEmpty() || schemaOf(rows) != -1;
+    }
+
+    public static void encode(List<?> rows, OutputStream out) throws IOException {
+        int schema = rows.isEmpty() ? EMPTY : schemaOf(rows);
+        if (schema == -1) {
+            throw new IllegalArgumentException("Columnar encoding supports lists of Student, StudentHistory or ActivityLog");
+        }
+        Writer writer = new Writer(out);
+        for (byte b : MAGIC) {
+            writer.write(b);
+        }
+        writer.write(VERSION);
+        writer.write(schema);
+        writer.varint(rows.size());
+
+        switch (schema) {
+            case STUDENT -> {
+                List<Student> students = cast(rows);
+                writer.ids(column(students, Student::getId));
+                writer.strings(column(students, Student::getName));
+                writer.strings(column(students, Student::getEmail));
+                writer.dates(column(students, Student::getDob));
+                LocalDate today = LocalDate.now();
+                writer.ints(column(students, s -> s.getDob() == null ? null : Period.between(s.getDob(), today).getYears()));
+                writer.booleans(column(students, Student::getDeleted));
+            }
+            case STUDENT_HISTORY -> {
+                List<StudentHistory> history = cast(rows);
+                writer.ids(column(history, StudentHistory::getHistoryId));
+                writer.ids(column(history, StudentHistory::getStudentId));
+                writer.strings(column(history, StudentHistory::getName));
+                writer.strings(column(history, StudentHistory::getEmail));
+                writer.dates(column(history, StudentHistory::getDob));
+                writer.strings(column(history, StudentHistory::getOperation));
+                writer.dateTimes(column(history, StudentHistory::getChangedAt));
+                writer.strings(column(history, StudentHistory::getChangedBy));
+            }
+            case ACTIVITY_LOG -> {
+                List<ActivityLog> logs = cast(rows);
+                writer.ids(column(logs, ActivityLog::getLogId));
+                writer.strings(column(logs, ActivityLog::getAction));
+                writer.ids(column(logs, ActivityLog::getStudentId));
+                writer.strings(column(logs, ActivityLog::getUsername));
+                writer.dateTimes(column(logs, ActivityLog::getTimestamp));
+            }
+            default -> {
+            }
+        }
+        writer.flush();
+    }
+
+    public static List<Object> decode(InputStream in) throws IOException {
+        Reader reader = new Reader(in);
+        byte[] magic = reader.in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a columnar payload");
+        }
+        int version = reader.in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar version " + version);
+        }
+        int schema = reader.in.readUnsignedByte();
+        int count = (int) reader.varint();
+
+        List<Object> rows = new ArrayList<>(count);
+        switch (schema) {
+            case EMPTY -> {
+            }
+            case STUDENT -> {
+                List<Long> ids = reader.ids(count);
+                List<String> names = reader.strings(count);
+                List<String> emails = reader.strings(count);
+                List<LocalDate> dobs = reader.dates(count);
+                reader.ints(count); // age is derived from dob
+                List<Boolean> deleted = reader.booleans(count);
+                for (int i = 0; i < count; i++) {
+                    Student student = new Student(ids.get(i), names.get(i), emails.get(i), dobs.get(i));
+                    student.setDeleted(deleted.get(i));
+                    rows.add(student);
+                }
+            }
+            case STUDENT_HISTORY -> {
+                List<Long> historyIds = reader.ids(count);
+                List<Long> studentIds = reader.ids(count);
+                List<String> names = reader.strings(count);
+                List<String> emails = reader.strings(count);
+                List<LocalDate> dobs = reader.dates(count);
+                List<String> operations = reader.strings(count);
+                List<LocalDateTime> changedAt = reader.dateTimes(count);
+                List<String> changedBy = reader.strings(count);
+                for (int i = 0; i < count; i++) {
+                    StudentHistory history = new StudentHistory();
+                    history.setHistoryId(historyIds.get(i));
+                    history.setStudentId(studentIds.get(i));
+                    history.setName(names.get(i));
+                    history.setEmail(emails.get(i));
+                    history.setDob(dobs.get(i));
+                    history.setOperation(operations.get(i));
+                    history.setChangedAt(changedAt.get(i));
+                    history.setChangedBy(changedBy.get(i));
+                    rows.add(history);
+                }
+            }
+            case ACTIVITY_LOG -> {
+                List<Long> logIds = reader.ids(count);
+                List<String> actions = reader.strings(count);
+                List<Long> studentIds = reader.ids(count);
+                List<String> usernames = reader.strings(count);
+                List<LocalDateTime> timestamps = reader.dateTimes(count);
+                for (int i = 0; i < count; i++) {
+                    ActivityLog log = new ActivityLog();
+                    log.setLogId(logIds.get(i));
+                    log.setAction(actions.get(i));
+                    log.setStudentId(studentIds.get(i));
+                    log.setUsername(usernames.get(i));
+                    log.setTimestamp(timestamps.get(i));
+                    rows.add(log);
+                }
+            }
+            default -> throw new IOException("Unknown columnar schema " + schema);
+        }
+        return rows;
+    }
+
+    private static int schemaOf(List<?> rows) {
+        Class<?> type = rows.get(0) == null ? null : rows.get(0).getClass();
+        for (Object row : rows) {
+            if (row == null || row.getClass() != type) {
+                return -1;
+            }
+        }
+        if (type == Student.class) {
+            return STUDENT;
+        }
+        if (type == StudentHistory.class) {
+            return STUDENT_HISTORY;
+        }
+        if (type == ActivityLog.class) {
+            return ACTIVITY_LOG;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(List<?> rows) {
+        return (List<T>) rows;
+    }
+
+    private static <T, V> List<V> column(List<T> rows, Function<T, V> getter) {
+        List<V> values = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            values.add(getter.apply(row));
+        }
+        return values;
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Buffers internally, the target stream only sees whole chunks
+    private static final class Writer {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(int b) throws IOException {
+            if (position == buffer.length) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                out.write(buffer, 0, position);
+                position = 0;
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+
+        void varint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(long value) throws IOException {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void presence(List<?> values) throws IOException {
+            bits(values.size(), i -> values.get(i) != null);
+        }
+
+        void bits(int count, IntPredicate bit) throws IOException {
+            for (int start = 0; start < count; start += 8) {
+                int b = 0;
+                for (int i = 0; i < 8 && start + i < count; i++) {
+                    if (bit.test(start + i)) {
+                        b |= 1 << i;
+                    }
+                }
+                write(b);
+            }
+        }
+
+        void ids(List<Long> values) throws IOException {
+            presence(values);
+            long previous = 0;
+            for (Long value : values) {
+                if (value != null) {
+                    zigzag(value - previous);
+                    previous = value;
+                }
+            }
+        }
+
+        void ints(List<Integer> values) throws IOException {
+            presence(values);
+            for (Integer value : values) {
+                if (value != null) {
+                    zigzag(value);
+                }
+            }
+        }
+
+        void dates(List<LocalDate> values) throws IOException {
+            presence(values);
+            for (LocalDate value : values) {
+                if (value != null) {
+                    zigzag(value.toEpochDay());
+                }
+            }
+        }
+
+        void dateTimes(List<LocalDateTime> values) throws IOException {
+            presence(values);
+            long previous = 0;
+            for (LocalDateTime value : values) {
+                if (value != null) {
+                    long micros = toMicros(value);
+                    zigzag(micros - previous);
+                    previous = micros;
+                }
+            }
+        }
+
+        void strings(List<String> values) throws IOException {
+            presence(values);
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> entries = new ArrayList<>();
+            for (String value : values) {
+                if (value != null && dictionary.putIfAbsent(value, entries.size()) == null) {
+                    entries.add(value);
+                }
+            }
+            varint(entries.size());
+            for (String entry : entries) {
+                byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                varint(utf8.length);
+                write(utf8);
+            }
+            for (String value : values) {
+                if (value != null) {
+                    varint(dictionary.get(value));
+                }
+            }
+        }
+
+        void booleans(List<Boolean> values) throws IOException {
+            presence(values);
+            List<Boolean> present = new ArrayList<>(values.size());
+            for (Boolean value : values) {
+                if (value != null) {
+                    present.add(value);
+                }
+            }
+            bits(present.size(), present::get);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+
+        Reader(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long zigzag() throws IOException {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        boolean[] bits(int count) throws IOException {
+            boolean[] bits = new boolean[count];
+            for (int start = 0; start < count; start += 8) {
+                int b = in.readUnsignedByte();
+                for (int i = 0; i < 8 && start + i < count; i++) {
+                    bits[start + i] = (b & (1 << i)) != 0;
+                }
+            }
+            return bits;
+        }
+
+        List<Long> ids(int count) throws IOException {
+            boolean[] present = bits(count);
+            List<Long> values = new ArrayList<>(count);
+            long previous = 0;
+            for (boolean p : present) {
+                if (p) {
+                    previous += zigzag();
+                    values.add(previous);
+                } else {
+                    values.add(null);
+                }
+            }
+            return values;
+        }
+
+        List<Integer> ints(int count) throws IOException {
+            boolean[] present = bits(count);
+            List<Integer> values = new ArrayList<>(count);
+            for (boolean p : present) {
+                values.add(p ? (int) zigzag() : null);
+            }
+            return values;
+        }
+
+        List<LocalDate> dates(int count) throws IOException {
+            boolean[] present = bits(count);
+            List<LocalDate> values = new ArrayList<>(count);
+            for (boolean p : present) {
+                values.add(p ? LocalDate.ofEpochDay(zigzag()) : null);
+            }
+            return values;
+        }
+
+        List<LocalDateTime> dateTimes(int count) throws IOException {
+            boolean[] present = bits(count);
+            List<LocalDateTime> values = new ArrayList<>(count);
+            long previous = 0;
+            for (boolean p : present) {
+                if (p) {
+                    previous += zigzag();
+                    values.add(fromMicros(previous));
+                } else {
+                    values.add(null);
+                }
+            }
+            return values;
+        }
+
+        List<String> strings(int count) throws IOException {
+            boolean[] present = bits(count);
+            int size = (int) varint();
+            String[] dictionary = new String[size];
+            for (int i = 0; i < size; i++) {
+                byte[] utf8 = in.readNBytes((int) varint());
+                dictionary[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            List<String> values = new ArrayList<>(count);
+            for (boolean p : present) {
+                values.add(p ? dictionary[(int) varint()] : null);
+            }
+            return values;
+        }
+
+        List<Boolean> booleans(int count) throws IOException {
+            boolean[] present = bits(count);
+            int presentCount = 0;
+            for (boolean p : present) {
+                if (p) {
+                    presentCount++;
+                }
+            }
+            boolean[] bits = bits(presentCount);
+            List<Boolean> values = new ArrayList<>(count);
+            int next = 0;
+            for (boolean p : present) {
+                values.add(p ? bits[next++] : null);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.student;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Writes entity lists with ColumnarCodec, responses only
+public class ColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<?>> {
+
+    public ColumnarHttpMessageConverter() {
+        super(MediaType.parseMediaType(ColumnarCodec.MEDIA_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    // Turns down lists declared with another element type (such as the ?fields= maps),
+    // so content negotiation falls back to JSON or answers 406 instead of failing the write
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(clazz, mediaType)) {
+            return false;
+        }
+        // null for a raw List, Object for List<?>, those are checked again in writeInternal
+        Class<?> rowType = ResolvableType.forType(type == null ? clazz : type).asCollection().resolveGeneric(0);
+        return rowType == null || rowType == Object.class || ColumnarCodec.canEncode(rowType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<?> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar format is response only", inputMessage);
+    }
+
+    @Override
+    protected List<?> readInternal(Class<? extends List<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar format is response only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(List<?> rows, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!ColumnarCodec.canEncode(rows)) {
+            throw new HttpMessageNotWritableException(
+                    "Columnar format supports lists of Student, StudentHistory or ActivityLog only");
+        }
+        ColumnarCodec.encode(rows, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,550 @@
+package com.example.demo.student;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary snapshot of student, student_history, activity_log, student_archive and
+ * their sequences.
+ *
+ * A dump reads every table in parallel through PostgreSQL binary COPY, all readers
+ * sharing one exported transaction snapshot so the tables are consistent with each
+ * other. The COPY streams are cut into chunks of CHUNK_BYTES, deflated and written
+ * interleaved to a single stream:
+ *
+ * <pre>
+ * "STUSNAP" version
+ * table count, (name, columns)*
+ * sequence count, (name, last_value, is_called)*
+ * (table index, compressed length, deflated COPY bytes)*
+ * -1
+ * </pre>
+ *
+ * A restore loads every table in parallel, each in one transaction on its own
+ * connection: TRUNCATE, drop the indexes and primary keys, COPY the table's chunks,
+ * recreate the indexes and ANALYZE. The transactions commit only once every table
+ * has loaded, so a corrupt or truncated upload leaves the database as it was; then
+ * the sequences are moved. Queues between reading, compressing and COPY are
+ * bounded, so memory stays at a few chunks per table for any database size.
+ */
+@Component
+public class DatabaseSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshot.class);
+
+    private static final String MAGIC = "STUSNAP";
+    private static final int VERSION = 2;
+    private static final int CHUNK_BYTES = 1 << 20;
+    // deflate never grows a chunk by more than a few bytes per 16 KiB block
+    private static final int MAX_FRAME_BYTES = CHUNK_BYTES + (CHUNK_BYTES >> 8);
+    // a restore fails instead of waiting behind (or deadlocking with) transactions using the tables
+    private static final String LOCK_TIMEOUT = "10s";
+    private static final int QUEUED_CHUNKS = 4;
+    private static final byte[] END = new byte[0];
+
+    private record Table(String name, String columns) {
+    }
+
+    // Explicit column lists keep the file independent of physical column order
+    private static final List<Table> TABLES = List.of(
+            new Table("student", "id, name, email, dob, deleted"),
+            new Table("student_history", "history_id, student_id, name, email, dob, operation, changed_at, changed_by"),
+            new Table("activity_log", "log_id, action, student_id, username, timestamp"),
+            new Table("student_archive", "id, name, email, dob, deleted_at, archived_at"));
+
+    private static final String SEQUENCES_SQL = """
+            SELECT 'student_sequence', last_value, is_called FROM student_sequence
+            UNION ALL SELECT 'student_history_history_id_seq', last_value, is_called FROM student_history_history_id_seq
+            UNION ALL SELECT 'activity_log_log_id_seq', last_value, is_called FROM activity_log_log_id_seq""";
+
+    private record Sequence(String name, long lastValue, boolean called) {
+    }
+
+    private static final List<String> SEQUENCES =
+            List.of("student_sequence", "student_history_history_id_seq", "activity_log_log_id_seq");
+
+    public record RestoreResult(Map<String, Long> rows, long millis) {
+    }
+
+    // Another dump or restore is running
+    public static class BusyException extends IllegalStateException {
+        BusyException(String message) {
+            super(message);
+        }
+    }
+
+    // The upload is not a snapshot this schema can restore, nothing was changed
+    public static class InvalidSnapshotException extends IllegalStateException {
+        InvalidSnapshotException(String message) {
+            super(message);
+        }
+
+        InvalidSnapshotException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final DataSource dataSource;
+    private final StudentResponseCache studentResponseCache;
+    private final StudentStatistics studentStatistics;
+
+    // one dump or restore at a time
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    @Autowired
+    public DatabaseSnapshot(DataSource dataSource,
+                            StudentResponseCache studentResponseCache,
+                            StudentStatistics studentStatistics) {
+        this.dataSource = dataSource;
+        this.studentResponseCache = studentResponseCache;
+        this.studentStatistics = studentStatistics;
+    }
+
+    public void dump(OutputStream target) throws IOException, SQLException, InterruptedException {
+        acquire();
+        ExecutorService readers = Executors.newFixedThreadPool(TABLES.size());
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            try {
+                String snapshotId = queryString(connection, "SELECT pg_export_snapshot()");
+                // read after the snapshot is taken so they are at or past every id it contains
+                List<Sequence> sequences = readSequences(connection);
+
+                DataOutputStream out = new DataOutputStream(target);
+                out.writeUTF(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(TABLES.size());
+                for (Table table : TABLES) {
+                    out.writeUTF(table.name());
+                    out.writeUTF(table.columns());
+                }
+                out.writeInt(sequences.size());
+                for (Sequence sequence : sequences) {
+                    out.writeUTF(sequence.name());
+                    out.writeLong(sequence.lastValue());
+                    out.writeBoolean(sequence.called());
+                }
+
+                // compressed chunks from all readers, tagged with the table index in the first byte
+                BlockingQueue<byte[]> frames = new ArrayBlockingQueue<>(QUEUED_CHUNKS * TABLES.size());
+                List<Future<Long>> rows = new ArrayList<>();
+                for (int i = 0; i < TABLES.size(); i++) {
+                    int index = i;
+                    rows.add(readers.submit(() -> copyOut(snapshotId, index, frames)));
+                }
+                int finished = 0;
+                while (finished < TABLES.size()) {
+                    byte[] frame = frames.poll(100, TimeUnit.MILLISECONDS);
+                    if (frame == null) {
+                        failIfDone(rows);
+                    } else if (frame.length == 1) {
+                        // a reader is done, see copyOut
+                        finished++;
+                    } else {
+                        out.writeByte(frame[0]);
+                        out.writeInt(frame.length - 1);
+                        out.write(frame, 1, frame.length - 1);
+                    }
+                }
+                out.writeByte(-1);
+                out.flush();
+                for (int i = 0; i < TABLES.size(); i++) {
+                    log.info("Dumped {} rows of {}", get(rows.get(i)), TABLES.get(i).name());
+                }
+            } finally {
+                connection.rollback();
+            }
+        } finally {
+            readers.shutdownNow();
+            busy.set(false);
+        }
+    }
+
+    public RestoreResult restore(InputStream source) throws IOException, SQLException, InterruptedException {
+        acquire();
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(TABLES.size());
+        try {
+            DataInputStream in = new DataInputStream(source);
+            List<Sequence> sequences;
+            try {
+                sequences = readHeader(in);
+            } catch (EOFException | UTFDataFormatException e) {
+                throw new InvalidSnapshotException("not a student snapshot", e);
+            }
+
+            Map<String, Long> rows = new LinkedHashMap<>();
+            List<Connection> connections = new ArrayList<>();
+            List<Future<Long>> loaded = new ArrayList<>();
+            boolean committed = false;
+            try {
+                List<BlockingQueue<byte[]>> queues = new ArrayList<>();
+                for (Table table : TABLES) {
+                    Connection connection = dataSource.getConnection();
+                    connections.add(connection);
+                    connection.setAutoCommit(false);
+                    BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+                    queues.add(queue);
+                    loaded.add(workers.submit(() -> load(table, connection, queue)));
+                }
+                for (int index = in.readByte(); index != -1; index = in.readByte()) {
+                    if (index < 0 || index >= queues.size()) {
+                        throw new InvalidSnapshotException("corrupt snapshot, unknown table " + index);
+                    }
+                    int length = in.readInt();
+                    if (length <= 0 || length > MAX_FRAME_BYTES) {
+                        throw new InvalidSnapshotException("corrupt snapshot, chunk of " + length + " bytes");
+                    }
+                    byte[] chunk = new byte[length];
+                    in.readFully(chunk);
+                    offer(queues.get(index), chunk, loaded);
+                }
+                for (BlockingQueue<byte[]> queue : queues) {
+                    offer(queue, END, loaded);
+                }
+                for (int i = 0; i < TABLES.size(); i++) {
+                    rows.put(TABLES.get(i).name(), get(loaded.get(i)));
+                }
+                // every table is loaded and indexed, only now does the old content go away
+                for (Connection connection : connections) {
+                    connection.commit();
+                }
+                committed = true;
+            } catch (EOFException e) {
+                throw new InvalidSnapshotException("snapshot is truncated", e);
+            } finally {
+                // loaders must be off the connections before they are rolled back
+                for (Future<Long> loader : loaded) {
+                    loader.cancel(true);
+                }
+                workers.shutdown();
+                workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                for (Connection connection : connections) {
+                    close(connection, committed);
+                }
+            }
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement setval = connection.prepareStatement("SELECT setval(?::regclass, ?, ?)")) {
+                for (Sequence sequence : sequences) {
+                    setval.setString(1, sequence.name());
+                    setval.setLong(2, sequence.lastValue());
+                    setval.setBoolean(3, sequence.called());
+                    setval.execute();
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Restored {} in {} ms", rows, millis);
+            return new RestoreResult(rows, millis);
+        } finally {
+            workers.shutdownNow();
+            studentResponseCache.invalidate();
+            studentStatistics.invalidate();
+            busy.set(false);
+        }
+    }
+
+    // Reads and checks everything before the chunks, so a bad header fails before any table is touched
+    private static List<Sequence> readHeader(DataInputStream in) throws IOException {
+        if (!MAGIC.equals(in.readUTF()) || in.readInt() != VERSION) {
+            throw new InvalidSnapshotException("not a student snapshot or unsupported version");
+        }
+        int tableCount = in.readInt();
+        List<Table> tables = new ArrayList<>();
+        for (int i = 0; i < tableCount && i <= TABLES.size(); i++) {
+            tables.add(new Table(in.readUTF(), in.readUTF()));
+        }
+        // names end up in SQL, so only the known tables and columns are accepted
+        if (!tables.equals(TABLES)) {
+            throw new InvalidSnapshotException("snapshot tables " + tables + " do not match this schema");
+        }
+        int sequenceCount = in.readInt();
+        List<Sequence> sequences = new ArrayList<>();
+        for (int i = 0; i < sequenceCount && i <= SEQUENCES.size(); i++) {
+            sequences.add(new Sequence(in.readUTF(), in.readLong(), in.readBoolean()));
+        }
+        // moved only after the tables commit, where a failure would leave them behind the restored ids
+        if (!sequences.stream().map(Sequence::name).toList().equals(SEQUENCES)
+                || sequences.stream().anyMatch(sequence -> sequence.lastValue() < 1)) {
+            throw new InvalidSnapshotException("snapshot sequences " + sequences + " do not match this schema");
+        }
+        return sequences;
+    }
+
+    private void acquire() {
+        if (!busy.compareAndSet(false, true)) {
+            throw new BusyException("a snapshot dump or restore is already running");
+        }
+    }
+
+    // Streams one table out of the shared snapshot as deflated chunks
+    private long copyOut(String snapshotId, int index, BlockingQueue<byte[]> frames) throws Exception {
+        Table table = TABLES.get(index);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+                ChunkWriter chunks = new ChunkWriter(index, frames);
+                long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(
+                        "COPY (SELECT " + table.columns() + " FROM " + table.name() + ") TO STDOUT (FORMAT binary)", chunks);
+                chunks.close();
+                frames.put(new byte[]{(byte) index});
+                return rows;
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    // Replaces one table's content inside the connection's transaction, left uncommitted
+    private long load(Table table, Connection connection, BlockingQueue<byte[]> chunks) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+            statement.execute("TRUNCATE " + table.name());
+            List<String> rebuild = dropIndexes(table, connection);
+            long rows;
+            try {
+                rows = copyIn(table, connection, chunks);
+            } catch (SQLException e) {
+                // class 22 is data exception, such as rows that do not fit the columns
+                if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                    throw new InvalidSnapshotException("snapshot rows for " + table.name() + " do not load: "
+                            + e.getMessage(), e);
+                }
+                throw e;
+            }
+            for (String sql : rebuild) {
+                statement.execute(sql);
+            }
+            statement.execute("ANALYZE " + table.name());
+            return rows;
+        }
+    }
+
+    // Feeds one table's chunks into COPY FROM STDIN until END
+    private static long copyIn(Table table, Connection connection, BlockingQueue<byte[]> chunks) throws Exception {
+        Inflater inflater = new Inflater();
+        byte[] buffer = new byte[CHUNK_BYTES];
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "COPY " + table.name() + " (" + table.columns() + ") FROM STDIN (FORMAT binary)");
+        try {
+            for (byte[] chunk = chunks.take(); chunk != END; chunk = chunks.take()) {
+                inflater.reset();
+                inflater.setInput(chunk);
+                while (!inflater.finished()) {
+                    int length = inflater.inflate(buffer);
+                    if (length == 0 && inflater.needsInput() || inflater.getBytesWritten() > CHUNK_BYTES) {
+                        throw new InvalidSnapshotException("corrupt snapshot chunk for " + table.name());
+                    }
+                    copy.writeToCopy(buffer, 0, length);
+                }
+            }
+            return copy.endCopy();
+        } catch (DataFormatException e) {
+            throw new InvalidSnapshotException("corrupt snapshot chunk for " + table.name(), e);
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+            inflater.end();
+        }
+    }
+
+    // Drops the table's indexes, primary key first, returns the DDL to recreate them
+    private static List<String> dropIndexes(Table table, Connection connection) throws SQLException {
+        List<String> rebuild = new ArrayList<>();
+        List<String> drop = new ArrayList<>();
+        try (PreparedStatement constraints = connection.prepareStatement("""
+                SELECT conname, pg_get_constraintdef(oid)
+                FROM pg_constraint
+                WHERE conrelid = ?::regclass AND contype IN ('p', 'u')""");
+             PreparedStatement indexes = connection.prepareStatement("""
+                SELECT i.indexrelid::regclass::text, pg_get_indexdef(i.indexrelid)
+                FROM pg_index i
+                WHERE i.indrelid = ?::regclass
+                  AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid)""")) {
+            constraints.setString(1, table.name());
+            try (ResultSet rs = constraints.executeQuery()) {
+                while (rs.next()) {
+                    drop.add("ALTER TABLE " + table.name() + " DROP CONSTRAINT " + rs.getString(1));
+                    rebuild.add("ALTER TABLE " + table.name() + " ADD CONSTRAINT " + rs.getString(1) + " " + rs.getString(2));
+                }
+            }
+            indexes.setString(1, table.name());
+            try (ResultSet rs = indexes.executeQuery()) {
+                while (rs.next()) {
+                    drop.add("DROP INDEX " + rs.getString(1));
+                    rebuild.add(rs.getString(2));
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : drop) {
+                statement.execute(sql);
+            }
+        }
+        return rebuild;
+    }
+
+    // Rolls back a loader's transaction unless it was committed, and returns the connection to the pool
+    private static void close(Connection connection, boolean committed) {
+        try (connection) {
+            if (!committed) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not roll back restore connection", e);
+        }
+    }
+
+    private static List<Sequence> readSequences(Connection connection) throws SQLException {
+        List<Sequence> sequences = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(SEQUENCES_SQL)) {
+            while (rs.next()) {
+                sequences.add(new Sequence(rs.getString(1), rs.getLong(2), rs.getBoolean(3)));
+            }
+        }
+        return sequences;
+    }
+
+    private static String queryString(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    // A failed loader never drains its queue, fail instead of blocking forever
+    private static void offer(BlockingQueue<byte[]> queue, byte[] chunk, List<? extends Future<?>> workers)
+            throws SQLException, InterruptedException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            failIfDone(workers);
+        }
+    }
+
+    private static void failIfDone(List<? extends Future<?>> workers) throws SQLException, InterruptedException {
+        for (Future<?> worker : workers) {
+            if (worker.isDone()) {
+                get(worker);
+            }
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws SQLException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sql) {
+                throw sql;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Collects COPY output into CHUNK_BYTES chunks and queues them deflated
+    private static final class ChunkWriter extends OutputStream {
+        private final byte index;
+        private final BlockingQueue<byte[]> frames;
+        private final byte[] chunk = new byte[CHUNK_BYTES];
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] compressed = new byte[CHUNK_BYTES / 2];
+        private int length;
+
+        ChunkWriter(int index, BlockingQueue<byte[]> frames) {
+            this.index = (byte) index;
+            this.frames = frames;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            while (count > 0) {
+                int n = Math.min(count, chunk.length - length);
+                System.arraycopy(bytes, offset, chunk, length, n);
+                length += n;
+                offset += n;
+                count -= n;
+                if (length == chunk.length) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (length > 0) {
+                flushChunk();
+            }
+            deflater.end();
+        }
+
+        private void flushChunk() throws IOException {
+            deflater.reset();
+            deflater.setInput(chunk, 0, length);
+            deflater.finish();
+            // first byte is the table index
+            int size = 1;
+            while (!deflater.finished()) {
+                if (size == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                size += deflater.deflate(compressed, size, compressed.length - size);
+            }
+            compressed[0] = index;
+            try {
+                frames.put(Arrays.copyOf(compressed, size));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("dump interrupted", e);
+            }
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read path for the ?fields= parameter.
+ *
+ * Selects only the requested columns with plain JDBC and maps each row to a small
+ * map, so no entity is hydrated, attached to the persistence context or dirty-checked.
+ * Field names are the JSON property names of the entities and are checked against a
+ * fixed list, never concatenated into SQL as given. Unknown names throw
+ * IllegalArgumentException, which reaches callers translated to
+ * InvalidDataAccessApiUsageException; the controllers answer it with 400.
+ */
+@Repository
+public class ProjectionRepository {
+
+    @FunctionalInterface
+    private interface FieldReader {
+        Object read(ResultSet rs) throws SQLException;
+    }
+
+    private record Field(String name, String column, FieldReader reader) {
+    }
+
+    private static final Map<String, Field> STUDENT_FIELDS = fields(
+            new Field("id", "id", rs -> rs.getObject("id", Long.class)),
+            new Field("name", "name", rs -> rs.getString("name")),
+            new Field("email", "email", rs -> rs.getString("email")),
+            new Field("dob", "dob", rs -> rs.getObject("dob", LocalDate.class)),
+            new Field("age", "dob", rs -> age(rs.getObject("dob", LocalDate.class))),
+            new Field("deleted", "deleted", rs -> rs.getObject("deleted", Boolean.class))
+    );
+
+    private static final Map<String, Field> HISTORY_FIELDS = fields(
+            new Field("historyId", "history_id", rs -> rs.getObject("history_id", Long.class)),
+            new Field("studentId", "student_id", rs -> rs.getObject("student_id", Long.class)),
+            new Field("name", "name", rs -> rs.getString("name")),
+            new Field("email", "email", rs -> rs.getString("email")),
+            new Field("dob", "dob", rs -> rs.getObject("dob", LocalDate.class)),
+            new Field("operation", "operation", rs -> rs.getString("operation")),
+            new Field("changedAt", "changed_at", rs -> rs.getObject("changed_at", LocalDateTime.class)),
+            new Field("changedBy", "changed_by", rs -> rs.getString("changed_by"))
+    );
+
+    private static final Map<String, Field> ACTIVITY_LOG_FIELDS = fields(
+            new Field("logId", "log_id", rs -> rs.getObject("log_id", Long.class)),
+            new Field("action", "action", rs -> rs.getString("action")),
+            new Field("studentId", "student_id", rs -> rs.getObject("student_id", Long.class)),
+            new Field("username", "username", rs -> rs.getString("username")),
+            new Field("timestamp", "timestamp", rs -> rs.getObject("timestamp", LocalDateTime.class))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProjectionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Active students with only the requested fields
+    public List<Map<String, Object>> findActiveStudents(String fields) {
+        List<Field> selected = select(STUDENT_FIELDS, fields);
+        return jdbcTemplate.query(
+                "SELECT " + columns(selected) + " FROM student WHERE deleted = false",
+                mapper(selected));
+    }
+
+    // History of one student, newest first, with only the requested fields
+    public List<Map<String, Object>> findStudentHistory(Long studentId, String fields) {
+        List<Field> selected = select(HISTORY_FIELDS, fields);
+        return jdbcTemplate.query(
+                "SELECT " + columns(selected) + " FROM student_history WHERE student_id = ? ORDER BY changed_at DESC",
+                mapper(selected), studentId);
+    }
+
+    // All activity logs with only the requested fields
+    public List<Map<String, Object>> findActivityLogs(String fields) {
+        List<Field> selected = select(ACTIVITY_LOG_FIELDS, fields);
+        return jdbcTemplate.query(
+                "SELECT " + columns(selected) + " FROM activity_log",
+                mapper(selected));
+    }
+
+    private static List<Field> select(Map<String, Field> available, String fields) {
+        List<Field> selected = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Field field = available.get(trimmed);
+            if (field == null) {
+                throw new IllegalArgumentException(
+                        "Unknown field " + trimmed + ", expected one of " + available.keySet());
+            }
+            if (!selected.contains(field)) {
+                selected.add(field);
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "No fields requested, expected one of " + available.keySet());
+        }
+        return selected;
+    }
+
+    private static String columns(List<Field> selected) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Field field : selected) {
+            columns.add(field.column());
+        }
+        return String.join(", ", columns);
+    }
+
+    private static RowMapper<Map<String, Object>> mapper(List<Field> selected) {
+        return (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+            for (Field field : selected) {
+                row.put(field.name(), field.reader().read(rs));
+            }
+            return row;
+        };
+    }
+
+    private static Integer age(LocalDate dob) {
+        return dob == null ? null : Period.between(dob, LocalDate.now()).getYears();
+    }
+
+    private static Map<String, Field> fields(Field... fields) {
+        Map<String, Field> byName = new LinkedHashMap<>();
+        for (Field field : fields) {
+            byName.put(field.name(), field);
+        }
+        return byName;
+    }
+}
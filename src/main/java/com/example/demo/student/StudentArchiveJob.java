@@ -0,0 +1,71 @@
+package com.example.demo.student;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves students soft-deleted for more than student.archive.after-days from the
+ * student table into student_archive, every student.archive.interval-ms.
+ *
+ * Each batch of student.archive.batch-size rows is one short transaction, so the
+ * job never holds many locks and rows being restored concurrently are skipped
+ * until the next run. StudentService reads and restores archived students
+ * transparently.
+ *
+ * Nothing injects this job, so under lazy initialization (the fast profile) it
+ * would never be created and never scheduled. Spring Boot already keeps beans with
+ * @Scheduled methods eager; @Lazy(false) states it here rather than relying on that.
+ */
+@Component
+@Lazy(false)
+public class StudentArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentArchiveJob.class);
+
+    private final StudentArchiveRepository studentArchiveRepository;
+    private final boolean enabled;
+    private final long afterDays;
+    private final int batchSize;
+
+    @Autowired
+    public StudentArchiveJob(
+            StudentArchiveRepository studentArchiveRepository,
+            @Value("${student.archive.enabled:true}") boolean enabled,
+            @Value("${student.archive.after-days:90}") long afterDays,
+            @Value("${student.archive.batch-size:1000}") int batchSize
+    ) {
+        this.studentArchiveRepository = studentArchiveRepository;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${student.archive.interval-ms:3600000}",
+            initialDelayString = "${student.archive.interval-ms:3600000}")
+    public void run() {
+        if (enabled) {
+            archive(LocalDateTime.now().minusDays(afterDays));
+        }
+    }
+
+    // Archives everything deleted before the cutoff, returns the number of students moved
+    public long archive(LocalDateTime deletedBefore) {
+        long total = 0;
+        int moved;
+        do {
+            moved = studentArchiveRepository.archiveBatch(deletedBefore, batchSize);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} students deleted before {}", total, deletedBefore);
+        }
+        return total;
+    }
+}
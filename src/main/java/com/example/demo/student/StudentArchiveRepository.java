@@ -0,0 +1,94 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * student_archive, the cold tier for long soft-deleted students.
+ *
+ * Rows are moved between student and student_archive with single statements
+ * (DELETE ... RETURNING feeding an INSERT), so a student is always in exactly one
+ * of the two tables. Plain JDBC because the ids are kept as they are, which the
+ * sequence-generated Student entity cannot insert.
+ */
+@Repository
+public class StudentArchiveRepository {
+
+    // Deleted students whose last DELETE in the history is older than the cutoff.
+    // Students without a DELETE entry were deleted before history existed and count as old.
+    static final String ARCHIVE_BATCH = """
+            WITH candidates AS (
+                SELECT s.id, d.deleted_at
+                FROM student s
+                CROSS JOIN LATERAL (
+                    SELECT MAX(h.changed_at) AS deleted_at FROM student_history h
+                    WHERE h.student_id = s.id AND h.operation = 'DELETE') d
+                WHERE s.deleted = true AND (d.deleted_at IS NULL OR d.deleted_at < ?)
+                ORDER BY s.id
+                LIMIT ?
+                FOR UPDATE OF s SKIP LOCKED
+            ), moved AS (
+                DELETE FROM student s USING candidates c
+                WHERE s.id = c.id AND s.deleted = true
+                RETURNING s.id, s.name, s.email, s.dob, c.deleted_at
+            )
+            INSERT INTO student_archive (id, name, email, dob, deleted_at, archived_at)
+            SELECT id, name, email, dob, deleted_at, LOCALTIMESTAMP FROM moved""";
+
+    private static final String RESTORE = """
+            WITH restored AS (
+                DELETE FROM student_archive WHERE id = ? RETURNING id, name, email, dob
+            )
+            INSERT INTO student (id, name, email, dob, deleted)
+            SELECT id, name, email, dob, false FROM restored""";
+
+    private static final RowMapper<Student> STUDENT = (rs, rowNum) -> {
+        Student student = new Student(rs.getLong("id"), rs.getString("name"), rs.getString("email"),
+                rs.getObject("dob", LocalDate.class));
+        student.setDeleted(true);
+        return student;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StudentArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Moves up to batchSize students deleted before the cutoff, returns how many were moved
+    public int archiveBatch(LocalDateTime deletedBefore, int batchSize) {
+        return jdbcTemplate.update(ARCHIVE_BATCH, deletedBefore, batchSize);
+    }
+
+    public List<Student> findAll() {
+        return jdbcTemplate.query("SELECT id, name, email, dob FROM student_archive", STUDENT);
+    }
+
+    public Optional<Student> findById(Long id) {
+        return jdbcTemplate.query("SELECT id, name, email, dob FROM student_archive WHERE id = ?", STUDENT, id)
+                .stream().findFirst();
+    }
+
+    public boolean existsByEmail(String email) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM student_archive WHERE email = ? LIMIT 1", Integer.class, email)
+                .isEmpty();
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM student_archive", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    // Moves the student back into the student table as active, false if it is not archived
+    public boolean restore(Long id) {
+        return jdbcTemplate.update(RESTORE, id) == 1;
+    }
+}
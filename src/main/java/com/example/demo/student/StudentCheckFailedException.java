@@ -0,0 +1,15 @@
+package com.example.demo.student;
+
+/**
+ * A StudentService check that failed before anything was written, such as "email exist".
+ *
+ * StudentGroupCommitExecutor fails only the offending item for these and commits the
+ * rest of its batch; any other failure may have left writes behind, so the batch is
+ * rolled back and every item retried on its own.
+ */
+public class StudentCheckFailedException extends IllegalStateException {
+
+    public StudentCheckFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,23 +1,73 @@
 package com.example.demo.student;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "api/v1/student")
 public class StudentController {
     private final StudentService studentService;
+    private final StudentResponseCache studentResponseCache;
+    private final StudentStatistics studentStatistics;
+    private final StudentGroupCommitExecutor groupCommitExecutor;
 
     @Autowired
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService,
+                             StudentResponseCache studentResponseCache,
+                             StudentStatistics studentStatistics,
+                             StudentGroupCommitExecutor groupCommitExecutor) {
         this.studentService = studentService;
+        this.studentResponseCache = studentResponseCache;
+        this.studentStatistics = studentStatistics;
+        this.groupCommitExecutor = groupCommitExecutor;
     }
 
+    // Served from the pre-serialized snapshot, bytes are written to the response as-is.
+    // Clients asking for a binary format (see BinaryFormatConfiguration) get the entities encoded in it.
+    // Vary: Accept is added for every API response by BinaryFormatConfiguration.
     @GetMapping
-    public List<Student> getStudent() {
-        return studentService.getStudents();
+    public ResponseEntity<?> getStudent(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MediaType binary = BinaryFormatConfiguration.preferredBinaryType(accept);
+        if (binary != null) {
+            return ResponseEntity.ok().contentType(binary)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .body(studentService.getStudents());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(studentResponseCache.getGzipBody());
+        }
+        return response.body(studentResponseCache.getBody());
+    }
+
+    // With ?fields=id,name only those columns are read and returned, as JSON, CBOR or Smile
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getStudentFields(@RequestParam String fields) {
+        try {
+            return studentService.getStudents(fields);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // Counts and histograms from the in-memory statistics, actions per day for the last days days
+    @GetMapping("/stats")
+    public StudentStatistics.Snapshot getStatistics(@RequestParam(defaultValue = "30") int days) {
+        return studentStatistics.getStatistics(days);
     }
 
     @GetMapping("/deleted")
@@ -30,16 +80,26 @@ public class StudentController {
         return studentService.getStudentHistory(studentId);
     }
 
+    @GetMapping(path = "/{studentId}/history", params = "fields")
+    public List<Map<String, Object>> getStudentHistoryFields(@PathVariable("studentId") Long studentId,
+                                                             @RequestParam String fields) {
+        try {
+            return studentService.getStudentHistory(studentId, fields);
+        } catch (InvalidDataAccessApiUsageException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @PostMapping
     public void registerStudent(@RequestBody Student student) {
-        studentService.addNewStudent(student);
+        groupCommitExecutor.registerStudent(student);
     }
 
     @PutMapping(path = "{studentId}")
     public void updateStudent(@PathVariable("studentId") Long studentId,
                               @RequestParam(required = false) String name,
                               @RequestParam(required = false) String email){
-        studentService.updateStudent(studentId, name, email);
+        groupCommitExecutor.updateStudent(studentId, name, email);
     }
 
     @PutMapping("/{studentId}/restore")
@@ -49,6 +109,6 @@ public class StudentController {
 
     @DeleteMapping(path = "{studentId}")
     public void deleteStudent(@PathVariable("studentId") Long studentId) {
-        studentService.deleteStudent(studentId);
+        groupCommitExecutor.deleteStudent(studentId);
     }
 }
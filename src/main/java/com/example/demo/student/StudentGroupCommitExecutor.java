@@ -0,0 +1,241 @@
+package com.example.demo.student;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for registerStudent / updateStudent / deleteStudent.
+ *
+ * When student.group-commit.enabled is set, mutations from concurrent callers are
+ * queued, and a single worker applies everything that arrives within
+ * student.group-commit.window-ms (up to student.group-commit.max-batch-size items)
+ * in one transaction, so the batch shares one connection checkout and one commit.
+ * Each caller still gets its own result: an item that fails a check before writing
+ * (StudentCheckFailedException, for example "email exist") fails alone. Any other
+ * failure may have left writes in the batch, so like a batch that cannot commit it
+ * rolls everything back and every item is retried in its own transaction, where only
+ * the offending one fails. Callers wait at most
+ * student.group-commit.timeout-ms for their result.
+ *
+ * When disabled, calls go straight to StudentService.
+ */
+@Component
+public class StudentGroupCommitExecutor {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private record Request(Runnable batched, Runnable standalone, CompletableFuture<Void> result) {
+    }
+
+    private final StudentService studentService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public StudentGroupCommitExecutor(
+            StudentService studentService,
+            PlatformTransactionManager transactionManager,
+            @Value("${student.group-commit.enabled:false}") boolean enabled,
+            @Value("${student.group-commit.window-ms:2}") long windowMillis,
+            @Value("${student.group-commit.max-batch-size:64}") int maxBatchSize,
+            @Value("${student.group-commit.timeout-ms:30000}") long timeoutMillis
+    ) {
+        this.studentService = studentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void registerStudent(Student student) {
+        // save() assigns the id even if the batch later rolls back, so clear it before a retry
+        Long id = student.getId();
+        submit(() -> studentService.applyAddNewStudent(student),
+                () -> {
+                    student.setId(id);
+                    studentService.addNewStudent(student);
+                });
+    }
+
+    public void updateStudent(Long studentId, String name, String email) {
+        submit(() -> studentService.applyUpdateStudent(studentId, name, email),
+                () -> studentService.updateStudent(studentId, name, email));
+    }
+
+    public void deleteStudent(Long studentId) {
+        submit(() -> studentService.applyDeleteStudent(studentId),
+                () -> studentService.deleteStudent(studentId));
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "student-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        worker.join();
+        // Requests that raced with stop() run on their own
+        for (Request request = queue.poll(); request != null; request = queue.poll()) {
+            applyStandalone(request);
+        }
+    }
+
+    // Blocks the caller until its batch has committed, rethrowing its own failure
+    private void submit(Runnable batched, Runnable standalone) {
+        if (!running) {
+            standalone.run();
+            return;
+        }
+        Request request = new Request(batched, standalone, new CompletableFuture<>());
+        queue.add(request);
+        // stop() or the dying worker may have drained the queue before the add,
+        // whoever takes the request out of the queue runs it
+        if (!running && queue.remove(request)) {
+            standalone.run();
+            return;
+        }
+        try {
+            request.result().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued means it never ran, otherwise its batch may yet commit
+            queue.remove(request);
+            throw new IllegalStateException("group commit timed out after " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for group commit", e);
+        }
+    }
+
+    private void run() {
+        try {
+            batchUntilStopped();
+        } finally {
+            // Normally already false, but a worker killed by an Error must not leave callers queueing
+            running = false;
+            for (Request request = queue.poll(); request != null; request = queue.poll()) {
+                applyStandalone(request);
+            }
+        }
+    }
+
+    private void batchUntilStopped() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        // After stop() the queue is still drained before the worker exits
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only happens on JVM shutdown, apply what is queued and let the thread end
+                running = false;
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    apply(batch);
+                } catch (Throwable e) {
+                    // Fails whatever the batch left unanswered, the worker keeps going
+                    for (Request request : batch) {
+                        request.result().completeExceptionally(e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void apply(List<Request> batch) {
+        Map<Request, RuntimeException> failures = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Request request : batch) {
+                    try {
+                        request.batched().run();
+                    } catch (StudentCheckFailedException e) {
+                        failures.put(request, e);
+                    }
+                }
+            });
+        } catch (RuntimeException | Error commitFailure) {
+            // An item failed after writing, or the commit failed: the batch rolled back as a whole,
+            // run each item on its own
+            for (Request request : batch) {
+                applyStandalone(request);
+            }
+            return;
+        }
+        for (Request request : batch) {
+            RuntimeException failure = failures.get(request);
+            if (failure == null) {
+                request.result().complete(null);
+            } else {
+                request.result().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void applyStandalone(Request request) {
+        try {
+            request.standalone().run();
+            request.result().complete(null);
+        } catch (Throwable e) {
+            request.result().completeExceptionally(e);
+        }
+    }
+}
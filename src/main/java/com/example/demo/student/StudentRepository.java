@@ -1,6 +1,8 @@
 package com.example.demo.student;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -24,4 +26,15 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     // Find active student by ID
     @Query("SELECT s FROM Student s WHERE s.id = ?1 AND s.deleted = false")
     Optional<Student> findActiveStudentById(Long id);
+
+    // Cheap fingerprint of the roster, every API mutation logs an activity and
+    // hard deletes change the count (see StudentResponseCache.checkForChanges)
+    @Query(value = "SELECT (SELECT count(*) FROM student WHERE deleted = false) || ':' "
+            + "|| (SELECT coalesce(max(log_id), 0) FROM activity_log)", nativeQuery = true)
+    String findChangeMarker();
+
+    // Locks the row until the transaction ends, StudentArchiveJob skips locked rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Student s WHERE s.id = ?1")
+    Optional<Student> findByIdForUpdate(Long id);
 }
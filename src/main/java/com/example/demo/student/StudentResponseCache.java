@@ -0,0 +1,259 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materialized JSON body for GET /api/v1/student.
+ *
+ * Each active student is kept as its already serialized JSON bytes, ordered by id.
+ * StudentService patches single entries after a mutation commits, so a list request
+ * only concatenates bytes instead of querying and re-serializing every student.
+ * Ages depend on the current date, so the whole snapshot is rebuilt on the first
+ * read after midnight. Reloads read the database without holding the monitor that
+ * mutations need; changes committed meanwhile are replayed onto the reloaded entries.
+ *
+ * Writes that bypass this instance's StudentService (other instances, reset_database.sql,
+ * the load-test seed) are found by comparing a cheap fingerprint of the tables every
+ * student.cache.check-interval-ms, so the body is at most that interval plus one reload
+ * behind them. While the fingerprint keeps changing this costs one reload per interval.
+ */
+@Component
+public class StudentResponseCache {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final StudentRepository studentRepository;
+    private final ObjectMapper objectMapper;
+
+    // Replaced as a whole by a reload, patched in place by apply()
+    private volatile ConcurrentSkipListMap<Long, byte[]> entries = new ConcurrentSkipListMap<>();
+
+    // Date the ages in the entries were computed for, null until first load
+    private volatile LocalDate builtOn;
+
+    // Fingerprint read just before the last reload, see StudentRepository.findChangeMarker
+    private volatile String loadedMarker;
+
+    // Assembled bodies, reset whenever an entry changes
+    private volatile byte[] body;
+    private volatile byte[] gzipBody;
+
+    // Bumped by every change, an assembled body is only kept if no change happened meanwhile
+    private long version;
+
+    // Bumped by invalidate(), a reload that started before is thrown away
+    private long generation;
+
+    // Changes applied while a reload reads the database, replayed onto the reloaded entries.
+    // null when no reload is running.
+    private List<Map.Entry<Long, byte[]>> pending;
+
+    // Serializes reloads, never held by apply() so mutations do not wait for the database
+    private final Object reloadLock = new Object();
+
+    @Autowired
+    public StudentResponseCache(StudentRepository studentRepository, ObjectMapper objectMapper) {
+        this.studentRepository = studentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // JSON array of all active students
+    public byte[] getBody() {
+        byte[] current = body;
+        LocalDate today = LocalDate.now();
+        if (current != null && today.equals(builtOn)) {
+            return current;
+        }
+        while (!today.equals(builtOn)) {
+            reload(today, false);
+        }
+        return assemble();
+    }
+
+    // Reloads a loaded cache if the tables changed in a way this instance did not see.
+    // The current body keeps being served while the reload runs.
+    @Scheduled(fixedDelayString = "${student.cache.check-interval-ms:30000}",
+            initialDelayString = "${student.cache.check-interval-ms:30000}")
+    public void checkForChanges() {
+        String loaded = loadedMarker;
+        if (builtOn == null || loaded == null || loaded.equals(studentRepository.findChangeMarker())) {
+            return;
+        }
+        reload(LocalDate.now(), true);
+    }
+
+    // Same body as getBody(), gzip compressed
+    public byte[] getGzipBody() {
+        byte[] plain = getBody();
+        byte[] current = gzipBody;
+        if (current == null) {
+            current = compress(plain);
+            synchronized (this) {
+                if (body == plain) {
+                    gzipBody = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Store or replace a student's entry once the current transaction commits
+    public void put(Student student) {
+        byte[] json = serialize(student);
+        Long id = student.getId();
+        AfterCommit.run(() -> apply(id, json));
+    }
+
+    // Drop a student's entry once the current transaction commits
+    public void remove(Long studentId) {
+        AfterCommit.run(() -> apply(studentId, null));
+    }
+
+    // Forget everything, the next read reloads from the database
+    public synchronized void invalidate() {
+        entries = new ConcurrentSkipListMap<>();
+        builtOn = null;
+        loadedMarker = null;
+        body = null;
+        gzipBody = null;
+        version++;
+        generation++;
+    }
+
+    private synchronized void apply(Long id, byte[] json) {
+        if (pending != null) {
+            pending.add(new AbstractMap.SimpleImmutableEntry<>(id, json));
+        }
+        if (builtOn == null) {
+            // Not loaded yet, the running or next reload picks the change up
+            return;
+        }
+        patch(entries, id, json);
+        body = null;
+        gzipBody = null;
+        version++;
+    }
+
+    // Reads all active students without holding the monitor, then swaps them in
+    private void reload(LocalDate today, boolean force) {
+        synchronized (reloadLock) {
+            if (!force && today.equals(builtOn)) {
+                return;
+            }
+            long startedGeneration;
+            synchronized (this) {
+                startedGeneration = generation;
+                pending = new ArrayList<>();
+            }
+            try {
+                // read first, so a change racing with the select shows up at the next check
+                String marker = studentRepository.findChangeMarker();
+                ConcurrentSkipListMap<Long, byte[]> loaded = new ConcurrentSkipListMap<>();
+                for (Student student : studentRepository.findAllActiveStudents()) {
+                    loaded.put(student.getId(), serialize(student));
+                }
+                synchronized (this) {
+                    if (generation != startedGeneration) {
+                        // invalidated while loading, the data may predate whatever caused it
+                        return;
+                    }
+                    // changes that committed after the select, replaying earlier ones is harmless
+                    for (Map.Entry<Long, byte[]> change : pending) {
+                        patch(loaded, change.getKey(), change.getValue());
+                    }
+                    entries = loaded;
+                    builtOn = today;
+                    loadedMarker = marker;
+                    body = null;
+                    gzipBody = null;
+                    version++;
+                }
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    // Concatenates the entries outside the monitor, keeps the result if nothing changed meanwhile
+    private byte[] assemble() {
+        ConcurrentSkipListMap<Long, byte[]> current;
+        long startedVersion;
+        synchronized (this) {
+            if (body != null) {
+                return body;
+            }
+            current = entries;
+            startedVersion = version;
+        }
+
+        byte[] assembled;
+        if (current.isEmpty()) {
+            assembled = EMPTY_ARRAY;
+        } else {
+            int length = current.size() + 1; // brackets and commas
+            for (byte[] json : current.values()) {
+                length += json.length;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+            out.write('[');
+            for (byte[] json : current.values()) {
+                if (out.size() > 1) {
+                    out.write(',');
+                }
+                out.writeBytes(json);
+            }
+            out.write(']');
+            assembled = out.toByteArray();
+        }
+
+        synchronized (this) {
+            if (version == startedVersion) {
+                body = assembled;
+            }
+        }
+        return assembled;
+    }
+
+    private static void patch(Map<Long, byte[]> target, Long id, byte[] json) {
+        if (json == null) {
+            target.remove(id);
+        } else {
+            target.put(id, json);
+        }
+    }
+
+    private byte[] serialize(Student student) {
+        try {
+            return objectMapper.writeValueAsBytes(student);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize student " + student.getId(), e);
+        }
+    }
+
+    private static byte[] compress(byte[] plain) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(plain);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
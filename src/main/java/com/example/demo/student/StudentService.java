@@ -4,7 +4,9 @@ import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -14,16 +16,28 @@ public class StudentService {
     private final StudentRepository studentRepository;
     private final StudentHistoryRepository studentHistoryRepository;
     private final ActivityLogService activityLogService;
+    private final StudentResponseCache studentResponseCache;
+    private final ProjectionRepository projectionRepository;
+    private final StudentStatistics studentStatistics;
+    private final StudentArchiveRepository studentArchiveRepository;
 
     @Autowired
     public StudentService(
             StudentRepository studentRepository,
             StudentHistoryRepository studentHistoryRepository,
-            ActivityLogService activityLogService
+            ActivityLogService activityLogService,
+            StudentResponseCache studentResponseCache,
+            ProjectionRepository projectionRepository,
+            StudentStatistics studentStatistics,
+            StudentArchiveRepository studentArchiveRepository
     ) {
         this.studentRepository = studentRepository;
         this.studentHistoryRepository = studentHistoryRepository;
         this.activityLogService = activityLogService;
+        this.studentResponseCache = studentResponseCache;
+        this.projectionRepository = projectionRepository;
+        this.studentStatistics = studentStatistics;
+        this.studentArchiveRepository = studentArchiveRepository;
     }
 
     // Get only active (non-deleted) students
@@ -31,23 +45,44 @@ public class StudentService {
         return studentRepository.findAllActiveStudents();
     }
 
+    // Get only the requested fields of active students, without loading entities
+    public List<Map<String, Object>> getStudents(String fields) {
+        return projectionRepository.findActiveStudents(fields);
+    }
+
     // Get student history by id
     public List<StudentHistory> getStudentHistory(Long studentId) {
         return studentHistoryRepository.findByStudentIdOrderByChangedAtDesc(studentId);
     }
 
-    // Get deleted students
+    // Get only the requested fields of a student's history, without loading entities
+    public List<Map<String, Object>> getStudentHistory(Long studentId, String fields) {
+        return projectionRepository.findStudentHistory(studentId, fields);
+    }
+
+    // Get deleted students, including the ones moved to the archive by StudentArchiveJob
     public List<Student> getDeletedStudents() {
-        return studentRepository.findAllDeletedStudents();
+        List<Student> deleted = new ArrayList<>(studentRepository.findAllDeletedStudents());
+        deleted.addAll(studentArchiveRepository.findAll());
+        return deleted;
     }
 
+    // One transaction, so the cache and statistics see the insert and its log entry commit together
+    @Transactional
     public void addNewStudent(Student student) {
+        applyAddNewStudent(student);
+    }
+
+    // Body of addNewStudent without its own transaction boundary, see applyDeleteStudent
+    void applyAddNewStudent(Student student) {
         Optional<Student> studentOptional = studentRepository.findStudentByEmail(student.getEmail());
-        if (studentOptional.isPresent()) {
-            throw new IllegalStateException("email exist");
+        if (studentOptional.isPresent() || studentArchiveRepository.existsByEmail(student.getEmail())) {
+            throw new StudentCheckFailedException("email exist");
         }
         student.setDeleted(false); // Ensure new students are not marked as deleted
         studentRepository.save(student);
+        studentResponseCache.put(student);
+        studentStatistics.studentCreated(student);
 
         //Log student
         activityLogService.logAction("CREATE", student.getId());
@@ -56,8 +91,14 @@ public class StudentService {
     // Soft delete - just mark as deleted
     @Transactional
     public void deleteStudent(Long studentId) {
+        applyDeleteStudent(studentId);
+    }
+
+    // Body of deleteStudent without its own transaction boundary, used by StudentGroupCommitExecutor.
+    // Checks run before any write and throw StudentCheckFailedException, so that failure leaves nothing to undo.
+    void applyDeleteStudent(Long studentId) {
         Student student = studentRepository.findActiveStudentById(studentId)
-                .orElseThrow(() -> new IllegalStateException(
+                .orElseThrow(() -> new StudentCheckFailedException(
                         "Student with ID " + studentId + " does not exist or is already deleted"));
 
         // Save to history
@@ -66,6 +107,8 @@ public class StudentService {
 
         student.setDeleted(true);
         studentRepository.save(student);
+        studentResponseCache.remove(student.getId());
+        studentStatistics.studentDeleted(student);
 
         //Log student
         activityLogService.logAction("DELETE", student.getId());
@@ -74,9 +117,14 @@ public class StudentService {
     // Restore a soft-deleted student
     @Transactional
     public void restoreStudent(Long studentId) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalStateException(
-                        "Student with ID " + studentId + " does not exist"));
+        // Locked so the archive job cannot move the row away before the update;
+        // if it already has, the row is gone and the archive copy is restored instead
+        Optional<Student> found = studentRepository.findByIdForUpdate(studentId);
+        if (found.isEmpty()) {
+            restoreArchivedStudent(studentId);
+            return;
+        }
+        Student student = found.get();
 
         if (!student.getDeleted()) {
             throw new IllegalStateException("Student is not deleted");
@@ -84,6 +132,26 @@ public class StudentService {
 
         student.setDeleted(false);
         studentRepository.save(student);
+        studentResponseCache.put(student);
+        studentStatistics.studentRestored(student);
+        activityLogService.logAction("RESTORE", studentId);
+    }
+
+    // Moves an archived student back into the student table, its email may have been taken since
+    private void restoreArchivedStudent(Long studentId) {
+        Student archived = studentArchiveRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Student with ID " + studentId + " does not exist"));
+        if (studentRepository.findStudentByEmail(archived.getEmail()).isPresent()) {
+            throw new IllegalStateException("email exist");
+        }
+        if (!studentArchiveRepository.restore(studentId)) {
+            throw new IllegalStateException("Student with ID " + studentId + " does not exist");
+        }
+
+        archived.setDeleted(false);
+        studentResponseCache.put(archived);
+        studentStatistics.studentRestored(archived);
         activityLogService.logAction("RESTORE", studentId);
     }
 
@@ -94,12 +162,19 @@ public class StudentService {
             throw new IllegalStateException("Student with ID " + studentId + " does not exist");
         }
         studentRepository.deleteById(studentId);
+        studentResponseCache.remove(studentId);
+        studentStatistics.invalidate();
     }
 
     @Transactional
     public void updateStudent(Long studentId, String name, String email) {
+        applyUpdateStudent(studentId, name, email);
+    }
+
+    // Body of updateStudent without its own transaction boundary, see applyDeleteStudent
+    void applyUpdateStudent(Long studentId, String name, String email) {
         Student student = studentRepository.findActiveStudentById(studentId)
-                .orElseThrow(() -> new IllegalStateException(
+                .orElseThrow(() -> new StudentCheckFailedException(
                         "Student with ID " + studentId + " does not exist or is deleted"));
 
         boolean changed = false;
@@ -111,8 +186,8 @@ public class StudentService {
 
         if (email != null && !email.isEmpty() && !Objects.equals(email, student.getEmail())) {
             Optional<Student> studentOptional = studentRepository.findStudentByEmail(email);
-            if (studentOptional.isPresent()) {
-                throw new IllegalStateException("email exist");
+            if (studentOptional.isPresent() || studentArchiveRepository.existsByEmail(email)) {
+                throw new StudentCheckFailedException("email exist");
             }
             changed = true;
         }
@@ -132,6 +207,7 @@ public class StudentService {
             }
 
             studentRepository.save(student);
+            studentResponseCache.put(student);
             activityLogService.logAction("UPDATE", student.getId());
         }
     }
@@ -0,0 +1,284 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory roster statistics for GET /api/v1/student/stats.
+ *
+ * Counters are adjusted by StudentService and ActivityLogService after each mutation
+ * commits, so reading them never touches the database. Active students are counted
+ * per birth date (epoch day) in a flat array, from which the age distribution and
+ * birth-year histogram are derived on read. Activity log entries are counted per
+ * action and day. The counters are rebuilt from the database on the first read and
+ * then every student.stats.reconcile-interval-ms to correct any drift.
+ *
+ * A rebuild must count every committed change exactly once. Each transaction holds
+ * commitLock for reading from just before its commit until its changes are applied;
+ * a rebuild takes it for writing only while pinning the snapshot its queries read.
+ * Changes applied after that point are not in the snapshot, so they are recorded
+ * and replayed onto the rebuilt counters before they are swapped in.
+ */
+@Component
+public class StudentStatistics {
+
+    private static final long FIRST_DOB_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int DOB_DAYS = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - FIRST_DOB_DAY);
+
+    public record Snapshot(
+            long active,
+            long deleted,
+            long activeWithoutBirthDate,
+            Map<Integer, Long> ageDistribution,
+            Map<Integer, Long> birthYears,
+            Map<String, Map<String, Long>> actionsPerDay,
+            LocalDateTime reconciledAt) {
+    }
+
+    private static final class Counters {
+        final LongAdder active = new LongAdder();
+        final LongAdder deleted = new LongAdder();
+        final LongAdder activeWithoutBirthDate = new LongAdder();
+        final AtomicLongArray activeByDobDay = new AtomicLongArray(DOB_DAYS);
+        final Map<String, Map<Long, LongAdder>> actionsByDay = new ConcurrentHashMap<>();
+        final LocalDateTime reconciledAt = LocalDateTime.now();
+
+        void addActive(LocalDate dob, long delta) {
+            active.add(delta);
+            int slot = dob == null ? -1 : (int) (dob.toEpochDay() - FIRST_DOB_DAY);
+            if (slot < 0 || slot >= DOB_DAYS) {
+                activeWithoutBirthDate.add(delta);
+            } else {
+                activeByDobDay.addAndGet(slot, delta);
+            }
+        }
+
+        void addAction(String action, long epochDay, long count) {
+            actionsByDay.computeIfAbsent(action, a -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(epochDay, d -> new LongAdder())
+                    .add(count);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    // null until the first read, updates before then are picked up by the initial load
+    private volatile Counters counters;
+
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    // Serializes rebuilds, never held by apply() so commits do not wait for the queries
+    private final Object loadLock = new Object();
+
+    // Changes applied while a rebuild is querying, null when none runs (guarded by this)
+    private List<Consumer<Counters>> pending;
+
+    // Bumped by invalidate(), a rebuild that started before is thrown away (guarded by this)
+    private long generation;
+
+    @Autowired
+    public StudentStatistics(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void studentCreated(Student student) {
+        LocalDate dob = student.getDob();
+        afterCommit(c -> c.addActive(dob, 1));
+    }
+
+    public void studentDeleted(Student student) {
+        LocalDate dob = student.getDob();
+        afterCommit(c -> {
+            c.addActive(dob, -1);
+            c.deleted.increment();
+        });
+    }
+
+    public void studentRestored(Student student) {
+        LocalDate dob = student.getDob();
+        afterCommit(c -> {
+            c.deleted.decrement();
+            c.addActive(dob, 1);
+        });
+    }
+
+    public void actionLogged(String action, LocalDateTime timestamp) {
+        long epochDay = timestamp.toLocalDate().toEpochDay();
+        afterCommit(c -> c.addAction(action, epochDay, 1));
+    }
+
+    // Drop the counters, the next read rebuilds them from the database
+    public synchronized void invalidate() {
+        counters = null;
+        generation++;
+    }
+
+    // Statistics with per-day action counts for the last days days (today included)
+    public Snapshot getStatistics(int days) {
+        Counters current = counters;
+        if (current == null) {
+            current = load();
+        }
+
+        LocalDate today = LocalDate.now();
+        Map<Integer, Long> ageDistribution = new TreeMap<>();
+        Map<Integer, Long> birthYears = new TreeMap<>();
+        for (int slot = 0; slot < DOB_DAYS; slot++) {
+            long count = current.activeByDobDay.get(slot);
+            if (count != 0) {
+                LocalDate dob = LocalDate.ofEpochDay(FIRST_DOB_DAY + slot);
+                ageDistribution.merge(Period.between(dob, today).getYears(), count, Long::sum);
+                birthYears.merge(dob.getYear(), count, Long::sum);
+            }
+        }
+
+        long firstDay = today.toEpochDay() - days + 1;
+        Map<String, Map<String, Long>> actionsPerDay = new TreeMap<>();
+        current.actionsByDay.forEach((action, byDay) -> {
+            Map<String, Long> perDay = new TreeMap<>();
+            byDay.forEach((epochDay, count) -> {
+                if (epochDay >= firstDay) {
+                    perDay.put(LocalDate.ofEpochDay(epochDay).toString(), count.sum());
+                }
+            });
+            actionsPerDay.put(action, perDay);
+        });
+
+        return new Snapshot(
+                current.active.sum(),
+                current.deleted.sum(),
+                current.activeWithoutBirthDate.sum(),
+                ageDistribution,
+                birthYears,
+                actionsPerDay,
+                current.reconciledAt);
+    }
+
+    // Rebuild all counters from the database
+    @Scheduled(fixedDelayString = "${student.stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${student.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        if (counters != null) {
+            load();
+        }
+    }
+
+    private Counters load() {
+        synchronized (loadLock) {
+            return snapshotTransaction.execute(status -> {
+                long startedGeneration;
+                commitLock.writeLock().lock();
+                try {
+                    // pins the snapshot all queries below read, no commit is half applied right now
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    synchronized (this) {
+                        startedGeneration = generation;
+                        pending = new ArrayList<>();
+                    }
+                } finally {
+                    commitLock.writeLock().unlock();
+                }
+                try {
+                    Counters loaded = query();
+                    synchronized (this) {
+                        // committed after the snapshot, so not part of it
+                        for (Consumer<Counters> change : pending) {
+                            change.accept(loaded);
+                        }
+                        if (generation == startedGeneration) {
+                            counters = loaded;
+                        }
+                    }
+                    return loaded;
+                } finally {
+                    synchronized (this) {
+                        pending = null;
+                    }
+                }
+            });
+        }
+    }
+
+    private Counters query() {
+        Counters loaded = new Counters();
+        jdbcTemplate.query("SELECT dob, count(*) FROM student WHERE deleted = false GROUP BY dob",
+                (RowCallbackHandler) rs -> loaded.addActive(rs.getObject(1, LocalDate.class), rs.getLong(2)));
+        // archived students are still deleted students, see StudentArchiveJob
+        Long deleted = jdbcTemplate.queryForObject("SELECT (SELECT count(*) FROM student WHERE deleted = true) "
+                + "+ (SELECT count(*) FROM student_archive)", Long.class);
+        loaded.deleted.add(deleted == null ? 0 : deleted);
+        jdbcTemplate.query("SELECT action, CAST(timestamp AS DATE), count(*) FROM activity_log "
+                        + "WHERE action IS NOT NULL AND timestamp IS NOT NULL GROUP BY action, CAST(timestamp AS DATE)",
+                (RowCallbackHandler) rs -> loaded.addAction(
+                        rs.getString(1), rs.getObject(2, LocalDate.class).toEpochDay(), rs.getLong(3)));
+        return loaded;
+    }
+
+    // Applies the change once the surrounding transaction has committed, holding the
+    // read side of commitLock from just before the commit until it is applied
+    private void afterCommit(Consumer<Counters> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(change);
+                    }
+                } finally {
+                    commitLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Consumer<Counters> change) {
+        if (pending != null) {
+            pending.add(change);
+        }
+        Counters current = counters;
+        if (current != null) {
+            change.accept(current);
+        }
+    }
+}
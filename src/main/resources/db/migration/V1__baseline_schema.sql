@@ -0,0 +1,31 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version and skip it (spring.flyway.baseline-on-migrate).
+
+CREATE SEQUENCE IF NOT EXISTS student_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS student (
+    id      BIGINT       NOT NULL PRIMARY KEY,
+    name    VARCHAR(255),
+    email   VARCHAR(255),
+    dob     DATE,
+    deleted BOOLEAN      DEFAULT FALSE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS student_history (
+    history_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id BIGINT,
+    name       VARCHAR(255),
+    email      VARCHAR(255),
+    dob        DATE,
+    operation  VARCHAR(255),
+    changed_at TIMESTAMP(6),
+    changed_by VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS activity_log (
+    log_id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    action     VARCHAR(255),
+    student_id BIGINT,
+    username   VARCHAR(255),
+    timestamp  TIMESTAMP(6)
+);
@@ -0,0 +1,17 @@
+-- Indexes for the repository queries, see QueryPlanTest
+
+-- findStudentByEmail, also enforces the "email exist" rule in the database
+CREATE UNIQUE INDEX IF NOT EXISTS student_email_key ON student (email);
+
+-- findAllActiveStudents / findActiveStudentById only touch non-deleted rows
+CREATE INDEX IF NOT EXISTS student_active_idx ON student (id) WHERE deleted = FALSE;
+
+-- findAllDeletedStudents
+CREATE INDEX IF NOT EXISTS student_deleted_idx ON student (id) WHERE deleted = TRUE;
+
+-- findByStudentIdOrderByChangedAtDesc
+CREATE INDEX IF NOT EXISTS student_history_student_id_idx ON student_history (student_id, changed_at DESC);
+
+-- activity log lookups by student and by time
+CREATE INDEX IF NOT EXISTS activity_log_student_id_idx ON activity_log (student_id);
+CREATE INDEX IF NOT EXISTS activity_log_timestamp_idx ON activity_log (timestamp);
@@ -0,0 +1,14 @@
+-- Cold tier for students soft-deleted longer than student.archive.after-days, see StudentArchiveJob.
+-- Rows keep their student id, so history and activity logs still point at them.
+
+CREATE TABLE IF NOT EXISTS student_archive (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    name        VARCHAR(255),
+    email       VARCHAR(255),
+    dob         DATE,
+    deleted_at  TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- addNewStudent / updateStudent keep emails unique across both tiers
+CREATE INDEX IF NOT EXISTS student_archive_email_idx ON student_archive (email);
@@ -0,0 +1,43 @@
+package com.example.demo.student;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Small timing helper for the benchmark tests.
+ * Benchmarks only run with -Dbenchmark=true, e.g.
+ * mvn test -Dbenchmark=true -Dtest=ProjectionBenchmarkTest
+ */
+final class Benchmarks {
+
+    record Result(String label, int iterations, double opsPerSecond, long bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %10.1f ops/s %12d B/op", label, opsPerSecond, bytesPerOp);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Benchmarks() {
+    }
+
+    // Runs the task warmup times, then measures throughput and allocation over iterations runs
+    static Result measure(String label, int warmup, int iterations, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Result result = new Result(label, iterations, iterations * 1_000_000_000.0 / elapsed, allocated / iterations);
+        System.out.println(result);
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares payload size, serialization throughput and allocation of JSON, CBOR,
+ * Smile and the columnar format for the three list responses.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=BinaryFormatBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BinaryFormatBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper cbor = BinaryFormatConfiguration.cborMapper();
+    private final ObjectMapper smile = BinaryFormatConfiguration.smileMapper();
+
+    @Test
+    void students() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            students.add(new Student((long) i + 1, "Student Number " + i, "student" + i + "@test.com",
+                    LocalDate.of(1995, 1, 1).plusDays(i % 3000)));
+        }
+        compare("students", students);
+    }
+
+    @Test
+    void studentHistory() {
+        List<StudentHistory> history = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < ROWS; i++) {
+            StudentHistory entry = new StudentHistory(new Student((long) i / 5 + 1, "Student Number " + i / 5,
+                    "student" + i / 5 + "@test.com", LocalDate.of(1995, 1, 1)), i % 7 == 0 ? "DELETE" : "UPDATE");
+            entry.setHistoryId((long) i + 1);
+            entry.setChangedAt(start.plusSeconds(i * 37L));
+            history.add(entry);
+        }
+        compare("history", history);
+    }
+
+    @Test
+    void activityLogs() {
+        List<ActivityLog> logs = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        String[] actions = {"CREATE", "UPDATE", "UPDATE", "DELETE", "RESTORE"};
+        for (int i = 0; i < ROWS; i++) {
+            ActivityLog log = new ActivityLog(actions[i % actions.length], (long) i / 3 + 1);
+            log.setLogId((long) i + 1);
+            log.setTimestamp(start.plusSeconds(i * 11L));
+            logs.add(log);
+        }
+        compare("activity-logs", logs);
+    }
+
+    private void compare(String label, List<?> rows) {
+        System.out.printf("%n%s (%d rows)%n", label, rows.size());
+        System.out.printf("  %-10s %10d bytes%n", "json", jackson(json, rows).length);
+        System.out.printf("  %-10s %10d bytes%n", "cbor", jackson(cbor, rows).length);
+        System.out.printf("  %-10s %10d bytes%n", "smile", jackson(smile, rows).length);
+        System.out.printf("  %-10s %10d bytes%n", "columnar", columnar(rows).length);
+
+        Benchmarks.measure(label + " json", WARMUP, ITERATIONS, () -> jackson(json, rows));
+        Benchmarks.measure(label + " cbor", WARMUP, ITERATIONS, () -> jackson(cbor, rows));
+        Benchmarks.measure(label + " smile", WARMUP, ITERATIONS, () -> jackson(smile, rows));
+        Benchmarks.measure(label + " columnar", WARMUP, ITERATIONS, () -> columnar(rows));
+    }
+
+    private static byte[] jackson(ObjectMapper mapper, List<?> rows) {
+        try {
+            return mapper.writeValueAsBytes(rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] columnar(List<?> rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ColumnarCodec.encode(rows, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
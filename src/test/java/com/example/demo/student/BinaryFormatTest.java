@@ -0,0 +1,93 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the binary response formats
+ */
+public class BinaryFormatTest {
+
+    @Test
+    void shouldRoundTripStudentsThroughColumnarCodec() throws IOException {
+        // Given
+        Student alice = new Student(7L, "Alice", "alice@test.com", LocalDate.of(2000, 1, 15));
+        Student bob = new Student(3L, "Bob", null, LocalDate.of(1998, 5, 20));
+        bob.setDeleted(true);
+
+        // When
+        List<Object> decoded = roundTrip(List.of(alice, bob));
+
+        // Then
+        assertThat(decoded).hasSize(2);
+        assertThat(decoded.get(0)).usingRecursiveComparison().ignoringFields("age").isEqualTo(alice);
+        assertThat(decoded.get(1)).usingRecursiveComparison().ignoringFields("age").isEqualTo(bob);
+    }
+
+    @Test
+    void shouldRoundTripHistoryAndActivityLogs() throws IOException {
+        // Given
+        StudentHistory history = new StudentHistory(
+                new Student(1L, "Carol", "carol@test.com", LocalDate.of(1999, 9, 9)), "UPDATE");
+        history.setHistoryId(42L);
+        history.setChangedAt(LocalDateTime.of(2024, 3, 1, 8, 0, 0, 500_000));
+        ActivityLog log = new ActivityLog("DELETE", 1L);
+        log.setLogId(100L);
+        log.setTimestamp(LocalDateTime.of(2024, 2, 29, 13, 45, 12, 123_456_000));
+
+        // When / Then
+        assertThat(roundTrip(List.of(history)).get(0)).usingRecursiveComparison().isEqualTo(history);
+        assertThat(roundTrip(List.of(log)).get(0)).usingRecursiveComparison().isEqualTo(log);
+        assertThat(roundTrip(List.of())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectListsOfOtherTypes() {
+        assertThat(ColumnarCodec.canEncode(List.of(Map.of("id", 1L)))).isFalse();
+        assertThatThrownBy(() -> ColumnarCodec.encode(List.of("x"), new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWriteDatesAsNumbersInCbor() throws IOException {
+        // Given
+        ObjectMapper cbor = BinaryFormatConfiguration.cborMapper();
+        Student student = new Student(1L, "Dan", "dan@test.com", LocalDate.of(2001, 8, 30));
+
+        // When
+        Student decoded = cbor.readValue(cbor.writeValueAsBytes(student), Student.class);
+
+        // Then
+        assertThat(cbor.readTree(cbor.writeValueAsBytes(student)).get("dob").isNumber()).isTrue();
+        assertThat(decoded.getDob()).isEqualTo(student.getDob());
+    }
+
+    @Test
+    void shouldPreferBinaryTypeOnlyWhenAskedFor() {
+        assertThat(BinaryFormatConfiguration.preferredBinaryType(null)).isNull();
+        assertThat(BinaryFormatConfiguration.preferredBinaryType("*/*")).isNull();
+        assertThat(BinaryFormatConfiguration.preferredBinaryType("application/json, application/cbor;q=0.5")).isNull();
+        assertThat(BinaryFormatConfiguration.preferredBinaryType("application/cbor, application/json;q=0.5"))
+                .isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(BinaryFormatConfiguration.preferredBinaryType(ColumnarCodec.MEDIA_TYPE))
+                .isEqualTo(BinaryFormatConfiguration.COLUMNAR);
+    }
+
+    private static List<Object> roundTrip(List<?> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarCodec.encode(rows, out);
+        return ColumnarCodec.decode(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
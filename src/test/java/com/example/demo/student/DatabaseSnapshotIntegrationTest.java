@@ -0,0 +1,233 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for DatabaseSnapshot
+ * Not @Transactional: dump and restore use their own connections, so every test
+ * puts the database back from a dump taken before it ran
+ */
+@SpringBootTest
+public class DatabaseSnapshotIntegrationTest {
+
+    private static final String INDEXES = """
+            SELECT tablename || ' ' || indexdef FROM pg_indexes
+            WHERE tablename IN ('student', 'student_history', 'activity_log', 'student_archive') ORDER BY indexname""";
+
+    @Autowired
+    private DatabaseSnapshot databaseSnapshot;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private byte[] original;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        original = dump();
+        studentService.addNewStudent(new Student("Ann", "ann@snapshot.test", LocalDate.of(2000, 1, 1)));
+        studentService.addNewStudent(new Student("Ben", "ben@snapshot.test", LocalDate.of(2001, 2, 2)));
+        Long ann = studentRepository.findStudentByEmail("ann@snapshot.test").get().getId();
+        Long ben = studentRepository.findStudentByEmail("ben@snapshot.test").get().getId();
+        studentService.updateStudent(ann, "Ann Updated", null);
+        studentService.deleteStudent(ben);
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        databaseSnapshot.restore(new ByteArrayInputStream(original));
+    }
+
+    @Test
+    void shouldRestoreDumpedTablesSequencesAndIndexes() throws Exception {
+        // Given
+        Map<String, Object> before = state();
+        List<String> indexes = jdbcTemplate.queryForList(INDEXES, String.class);
+        byte[] snapshot = dump();
+        studentService.addNewStudent(new Student("Late", "late@snapshot.test", LocalDate.of(2002, 3, 3)));
+
+        // When
+        DatabaseSnapshot.RestoreResult result = databaseSnapshot.restore(new ByteArrayInputStream(snapshot));
+
+        // Then
+        assertThat(state()).isEqualTo(before);
+        assertThat(result.rows()).containsEntry("student", (Long) before.get("students"));
+        assertThat(jdbcTemplate.queryForList(INDEXES, String.class)).isEqualTo(indexes);
+        assertThat(studentRepository.findStudentByEmail("late@snapshot.test")).isEmpty();
+        assertThat(studentService.getStudents()).extracting(Student::getName).contains("Ann Updated");
+        assertThat(studentService.getDeletedStudents()).extracting(Student::getEmail).contains("ben@snapshot.test");
+    }
+
+    @Test
+    void shouldLeaveDatabaseUntouchedWhenRestoreFails() throws Exception {
+        // Given a database that has moved on since the dump
+        byte[] snapshot = dump();
+        studentService.addNewStudent(new Student("Late", "late@snapshot.test", LocalDate.of(2002, 3, 3)));
+        Map<String, Object> before = state();
+        List<String> indexes = jdbcTemplate.queryForList(INDEXES, String.class);
+        int header = headerLength(snapshot);
+
+        // When
+        assertThatThrownBy(() -> databaseSnapshot.restore(new ByteArrayInputStream("garbage".getBytes())))
+                .isInstanceOf(Exception.class);
+        assertThatThrownBy(() -> databaseSnapshot.restore(
+                new ByteArrayInputStream(Arrays.copyOf(snapshot, snapshot.length - 20))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("truncated");
+        assertThatThrownBy(() -> databaseSnapshot.restore(new ByteArrayInputStream(oversizedChunk(snapshot, header))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("corrupt snapshot, chunk of");
+        assertThatThrownBy(() -> databaseSnapshot.restore(new ByteArrayInputStream(unknownSequence(snapshot, header))))
+                .isInstanceOf(DatabaseSnapshot.InvalidSnapshotException.class)
+                .hasMessageContaining("snapshot sequences");
+        byte[] corrupt = snapshot.clone();
+        Arrays.fill(corrupt, header + 5, header + 5 + 32, (byte) 0x55);
+        assertThatThrownBy(() -> databaseSnapshot.restore(new ByteArrayInputStream(corrupt)))
+                .isInstanceOf(Exception.class);
+
+        // Then
+        assertThat(state()).isEqualTo(before);
+        assertThat(jdbcTemplate.queryForList(INDEXES, String.class)).isEqualTo(indexes);
+        assertThat(studentRepository.findStudentByEmail("late@snapshot.test")).isPresent();
+    }
+
+    @Test
+    void shouldAnswerBadRequestForInvalidUploadsAndConflictWhileBusy() throws Exception {
+        AdminController controller = new AdminController(databaseSnapshot, "secret");
+
+        // Invalid upload
+        assertThatThrownBy(() -> controller.restore("secret", new ByteArrayInputStream("garbage".getBytes())))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        // Given a dump that is stuck writing
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> dump = CompletableFuture.runAsync(() -> {
+            try {
+                databaseSnapshot.dump(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        writing.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(writing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        try {
+            assertThatThrownBy(() -> controller.restore("secret", new ByteArrayInputStream(original)))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        } finally {
+            release.countDown();
+            dump.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldRequireConfiguredAdminToken() {
+        assertThat(new AdminController(databaseSnapshot, "").checkToken("anything")).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(new AdminController(databaseSnapshot, "secret").checkToken(null)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(new AdminController(databaseSnapshot, "secret").checkToken("wrong")).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(new AdminController(databaseSnapshot, "secret").checkToken("secret")).isNull();
+    }
+
+    private byte[] dump() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        databaseSnapshot.dump(out);
+        return out.toByteArray();
+    }
+
+    // Offset of the first chunk frame, right after the tables and sequences
+    private static int headerLength(byte[] snapshot) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(snapshot);
+        DataInputStream in = new DataInputStream(bytes);
+        in.readUTF();
+        in.readInt();
+        for (int tables = in.readInt(); tables > 0; tables--) {
+            in.readUTF();
+            in.readUTF();
+        }
+        for (int sequences = in.readInt(); sequences > 0; sequences--) {
+            in.readUTF();
+            in.readLong();
+            in.readBoolean();
+        }
+        return snapshot.length - bytes.available();
+    }
+
+    // The snapshot's header followed by a frame claiming a 2 GiB chunk
+    private static byte[] oversizedChunk(byte[] snapshot, int header) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(snapshot, 0, header);
+        out.writeByte(0);
+        out.writeInt(Integer.MAX_VALUE);
+        return bytes.toByteArray();
+    }
+
+    // The snapshot with its first sequence renamed to one this schema does not have
+    private static byte[] unknownSequence(byte[] snapshot, int header) {
+        byte[] name = "student_sequence".getBytes(StandardCharsets.UTF_8);
+        byte[] renamed = snapshot.clone();
+        for (int i = 0; i + name.length <= header; i++) {
+            if (Arrays.equals(snapshot, i, i + name.length, name, 0, name.length)) {
+                renamed[i + name.length - 1] = 'X';
+                return renamed;
+            }
+        }
+        throw new AssertionError("no student_sequence in the header");
+    }
+
+    private Map<String, Object> state() {
+        return jdbcTemplate.queryForMap("""
+                SELECT (SELECT COUNT(*) FROM student) AS students,
+                       (SELECT COUNT(*) FROM student WHERE deleted) AS deleted,
+                       (SELECT COUNT(*) FROM student_history) AS history,
+                       (SELECT COUNT(*) FROM activity_log) AS logs,
+                       (SELECT COUNT(*) FROM student_archive) AS archived,
+                       (SELECT MAX(changed_at) FROM student_history) AS last_change,
+                       (SELECT last_value FROM student_sequence) AS student_sequence,
+                       (SELECT last_value FROM activity_log_log_id_seq) AS log_sequence""");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares one transaction per registration with group commit at several concurrency levels.
+ * Reports throughput and p50 / p99 / max latency per call.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=GroupCommitBenchmarkTest
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class GroupCommitBenchmarkTest {
+
+    private static final int[] CONCURRENCY = {1, 8, 32, 128};
+    private static final int CALLS_PER_RUN = 2_000;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentResponseCache studentResponseCache;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @AfterEach
+    void cleanUp() {
+        StudentGroupCommitExecutorIntegrationTest.deleteStudents(jdbcTemplate, "%@gcbench.test");
+        studentResponseCache.invalidate();
+        studentStatistics.invalidate();
+    }
+
+    @Test
+    void registrationThroughputAndLatency() throws Exception {
+        System.out.printf("%-14s %6s %10s %10s %10s %10s%n", "mode", "conc", "ops/s", "p50 ms", "p99 ms", "max ms");
+        for (int concurrency : CONCURRENCY) {
+            run("transaction", concurrency, new StudentGroupCommitExecutor(studentService, transactionManager, false, 0, 1, 30_000));
+            run("group commit", concurrency, new StudentGroupCommitExecutor(studentService, transactionManager, true, 2, 64, 30_000));
+        }
+    }
+
+    private void run(String mode, int concurrency, StudentGroupCommitExecutor executor) throws Exception {
+        executor.start();
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        try {
+            int callsPerThread = CALLS_PER_RUN / concurrency;
+            List<Future<long[]>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < concurrency; t++) {
+                futures.add(threads.submit(() -> {
+                    long[] latencies = new long[callsPerThread];
+                    for (int i = 0; i < callsPerThread; i++) {
+                        int n = sequence.incrementAndGet();
+                        long callStart = System.nanoTime();
+                        executor.registerStudent(new Student("Bench " + n, n + "@gcbench.test", LocalDate.of(2000, 1, 1)));
+                        latencies[i] = System.nanoTime() - callStart;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[callsPerThread * concurrency];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+                offset += latencies.length;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(all);
+            System.out.printf("%-14s %6d %10.1f %10.2f %10.2f %10.2f%n", mode, concurrency,
+                    all.length * 1_000_000_000.0 / elapsed,
+                    millis(all[(int) (all.length * 0.50)]),
+                    millis(all[(int) (all.length * 0.99)]),
+                    millis(all[all.length - 1]));
+        } finally {
+            threads.shutdown();
+            executor.stop();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the entity read path with the ?fields= projection path.
+ * Reports throughput and bytes allocated per request (query + JSON serialization).
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ProjectionBenchmarkTest {
+
+    private static final int STUDENTS = 2_000;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void seed() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Bench " + i, "bench" + i + "@bench.test", LocalDate.of(2000, 1, 1).plusDays(i)));
+        }
+        studentRepository.saveAll(students);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        studentRepository.deleteAll(studentRepository.findAll().stream()
+                .filter(s -> s.getEmail().endsWith("@bench.test"))
+                .toList());
+    }
+
+    @Test
+    void studentListEntityVersusProjection() {
+        Benchmarks.Result entity = Benchmarks.measure("students: entities, all fields", WARMUP, ITERATIONS,
+                () -> write(studentService.getStudents()));
+        Benchmarks.Result projection = Benchmarks.measure("students: fields=id,name", WARMUP, ITERATIONS,
+                () -> write(studentService.getStudents("id,name")));
+
+        assertThat(projection.bytesPerOp()).isLessThan(entity.bytesPerOp());
+    }
+
+    @Test
+    void activityLogEntityVersusProjection() {
+        Benchmarks.measure("activity-logs: entities, all fields", WARMUP, ITERATIONS,
+                () -> write(activityLogRepository.findAll()));
+        Benchmarks.measure("activity-logs: fields=action,studentId", WARMUP, ITERATIONS,
+                () -> write(projectionRepository.findActivityLogs("action,studentId")));
+    }
+
+    private void write(Object body) {
+        try {
+            objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the ?fields= read path (ProjectionRepository)
+ * on the student, history and activity log endpoints, and their content negotiation
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional // Rollback after each test
+public class ProjectionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentHistoryRepository studentHistoryRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    private Long studentId;
+
+    @BeforeEach
+    void setUp() {
+        // Clean up before each test
+        activityLogRepository.deleteAll();
+        studentHistoryRepository.deleteAll();
+        studentRepository.deleteAll();
+
+        studentService.addNewStudent(new Student("Jane Roe", "jane.roe@test.com", LocalDate.of(2000, 1, 1)));
+        studentId = studentRepository.findStudentByEmail("jane.roe@test.com").get().getId();
+        studentService.updateStudent(studentId, "Jane Updated", null);
+        // the projections read through JDBC, which does not flush pending entity changes
+        studentRepository.flush();
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedStudentFields() throws Exception {
+        mockMvc.perform(get("/api/v1/student").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[0].id").value(studentId))
+                .andExpect(jsonPath("$[0].name").value("Jane Updated"));
+    }
+
+    @Test
+    void shouldIgnoreDuplicateAndBlankFieldNames() throws Exception {
+        mockMvc.perform(get("/api/v1/student").param("fields", " email,,email , dob,"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[0].email").value("jane.roe@test.com"))
+                .andExpect(jsonPath("$[0].dob").value("2000-01-01"));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedHistoryFields() throws Exception {
+        mockMvc.perform(get("/api/v1/student/{id}/history", studentId).param("fields", "studentId,operation,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]", aMapWithSize(3)))
+                .andExpect(jsonPath("$[0].studentId").value(studentId))
+                .andExpect(jsonPath("$[0].operation").value("UPDATE"))
+                .andExpect(jsonPath("$[0].name").value("Jane Roe"));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedActivityLogFields() throws Exception {
+        mockMvc.perform(get("/api/v1/activity-logs").param("fields", "action,studentId"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]", aMapWithSize(2)))
+                .andExpect(jsonPath("$[*].action").value(containsInAnyOrder("CREATE", "UPDATE")))
+                .andExpect(jsonPath("$[0].studentId").value(studentId));
+    }
+
+    @Test
+    void shouldNotOfferColumnarFormatForFieldProjections() throws Exception {
+        mockMvc.perform(get("/api/v1/student").param("fields", "id,name")
+                        .header(HttpHeaders.ACCEPT, ColumnarCodec.MEDIA_TYPE))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/api/v1/activity-logs").param("fields", "action")
+                        .header(HttpHeaders.ACCEPT, ColumnarCodec.MEDIA_TYPE + ", application/json;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/v1/student/{id}/history", studentId)
+                        .header(HttpHeaders.ACCEPT, ColumnarCodec.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ColumnarCodec.MEDIA_TYPE));
+    }
+
+    @Test
+    void shouldVaryStudentListOnAcceptAndAcceptEncoding() throws Exception {
+        mockMvc.perform(get("/api/v1/student"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/api/v1/student").header(HttpHeaders.ACCEPT, ColumnarCodec.MEDIA_TYPE))
+                .andExpect(content().contentTypeCompatibleWith(ColumnarCodec.MEDIA_TYPE))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+        mockMvc.perform(get("/api/v1/student").param("fields", "id"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void shouldVaryEveryNegotiatedResponseOnAccept() throws Exception {
+        mockMvc.perform(get("/api/v1/student/{id}/history", studentId))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/v1/student/{id}/history", studentId).param("fields", "name"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/v1/activity-logs").header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/v1/student/deleted"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void shouldRejectUnknownOrEmptyFieldListsAsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/student").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/student/{id}/history", studentId).param("fields", "id"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/activity-logs").param("fields", " , "))
+                .andExpect(status().isBadRequest());
+        // the data layer itself knows nothing about HTTP
+        assertThatThrownBy(() -> studentService.getStudents("password"))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown field password");
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the repository queries against a seeded database and fails
+ * if any of them sequentially scans one of the large tables.
+ *
+ * Run with: mvn test -Dexplain=true -Dtest=QueryPlanTest
+ * The seed data is inserted in the test transaction and rolled back afterwards.
+ * Full listings (all active students, all activity logs) read most of a table
+ * and are not checked.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.demo.student.RecordingStatementInspector")
+@EnabledIfSystemProperty(named = "explain", matches = "true")
+@Transactional
+public class QueryPlanTest {
+
+    private static final long SEED_ID = 10_000_000L;
+    private static final int STUDENTS = 100_000;
+    private static final List<String> LARGE_TABLES = List.of("student", "student_history", "activity_log");
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentHistoryRepository studentHistoryRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int statementCounter;
+
+    @BeforeEach
+    void seed() {
+        // 100k students, every 20th one soft-deleted, 3 history rows and 3 activity logs each
+        jdbcTemplate.update("""
+                INSERT INTO student (id, name, email, dob, deleted)
+                SELECT ? + g, 'Plan ' || g, 'plan' || g || '@plan.test',
+                       DATE '1990-01-01' + (g % 5000), g % 20 = 0
+                FROM generate_series(1, ?) g""", SEED_ID, STUDENTS);
+        jdbcTemplate.update("""
+                INSERT INTO student_history (student_id, name, email, dob, operation, changed_at, changed_by)
+                SELECT ? + g, 'Plan ' || g, 'plan' || g || '@plan.test', DATE '1990-01-01',
+                       'UPDATE', TIMESTAMP '2024-01-01' + r * INTERVAL '1 day', 'admin'
+                FROM generate_series(1, ?) g, generate_series(1, 3) r""", SEED_ID, STUDENTS);
+        jdbcTemplate.update("""
+                INSERT INTO activity_log (action, student_id, username, timestamp)
+                SELECT 'UPDATE', ? + g, 'admin', TIMESTAMP '2024-01-01' + r * INTERVAL '1 day'
+                FROM generate_series(1, ?) g, generate_series(1, 3) r""", SEED_ID, STUDENTS);
+        for (String table : LARGE_TABLES) {
+            jdbcTemplate.execute("ANALYZE " + table);
+        }
+    }
+
+    @Test
+    void findStudentByEmailUsesIndex() {
+        assertNoSequentialScan(() -> studentRepository.findStudentByEmail("plan500@plan.test"),
+                "plan500@plan.test");
+    }
+
+    @Test
+    void findActiveStudentByIdUsesIndex() {
+        assertNoSequentialScan(() -> studentRepository.findActiveStudentById(SEED_ID + 500),
+                SEED_ID + 500);
+    }
+
+    @Test
+    void findByIdUsesIndex() {
+        assertNoSequentialScan(() -> studentRepository.findById(SEED_ID + 500),
+                SEED_ID + 500);
+    }
+
+    @Test
+    void findAllDeletedStudentsUsesIndex() {
+        assertNoSequentialScan(() -> studentRepository.findAllDeletedStudents());
+    }
+
+    @Test
+    void findStudentHistoryUsesIndex() {
+        assertNoSequentialScan(() -> studentHistoryRepository.findByStudentIdOrderByChangedAtDesc(SEED_ID + 500),
+                SEED_ID + 500);
+    }
+
+    @Test
+    void projectedStudentHistoryUsesIndex() {
+        String plan = explain("SELECT history_id, operation FROM student_history WHERE student_id = $1 ORDER BY changed_at DESC",
+                SEED_ID + 500);
+        assertThat(projectionRepository.findStudentHistory(SEED_ID + 500, "historyId,operation")).hasSize(3);
+        assertNoSequentialScan(plan);
+    }
+
+    @Test
+    void archiveBatchUsesIndexes() {
+        String plan = explain(numberPlaceholders(StudentArchiveRepository.ARCHIVE_BATCH), "2024-06-01", 1000);
+        assertNoSequentialScan(plan);
+    }
+
+    // Runs the repository call, then EXPLAINs the select Hibernate issued with the given parameters
+    private void assertNoSequentialScan(Runnable repositoryCall, Object... parameters) {
+        RecordingStatementInspector.clear();
+        repositoryCall.run();
+        List<String> selects = RecordingStatementInspector.statements().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertThat(selects).as("statements issued by the repository call").isNotEmpty();
+
+        for (String sql : selects) {
+            assertNoSequentialScan(explain(numberPlaceholders(sql), parameters));
+        }
+    }
+
+    private void assertNoSequentialScan(String plan) {
+        for (String table : LARGE_TABLES) {
+            assertThat(plan).as(plan).doesNotContainPattern("Seq Scan on " + table + "\\b");
+        }
+    }
+
+    // EXPLAIN through a prepared statement so the planner sees the real parameter values
+    private String explain(String sql, Object... parameters) {
+        String name = "plan_check_" + statementCounter++;
+        jdbcTemplate.execute("PREPARE " + name + " AS " + sql);
+        try {
+            StringBuilder execute = new StringBuilder("EXPLAIN EXECUTE ").append(name);
+            if (parameters.length > 0) {
+                execute.append('(');
+                for (int i = 0; i < parameters.length; i++) {
+                    execute.append(i == 0 ? "" : ", ").append(literal(parameters[i]));
+                }
+                execute.append(')');
+            }
+            List<String> lines = jdbcTemplate.queryForList(execute.toString(), String.class);
+            return String.join("\n", lines);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE " + name);
+        }
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    // Hibernate uses ? placeholders, PREPARE needs $1, $2, ...
+    private static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int index = 1;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(index++);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for StudentArchiveJob and the archive-aware StudentService methods
+ * Not @Transactional: every archive batch commits on its own
+ */
+@SpringBootTest
+public class StudentArchiveIntegrationTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentArchiveRepository studentArchiveRepository;
+
+    @Autowired
+    private StudentArchiveJob studentArchiveJob;
+
+    @Autowired
+    private StudentResponseCache studentResponseCache;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM activity_log WHERE student_id IN (SELECT id FROM student_archive WHERE email LIKE ?)",
+                "%@archive.test");
+        jdbcTemplate.update("DELETE FROM student_history WHERE student_id IN (SELECT id FROM student_archive WHERE email LIKE ?)",
+                "%@archive.test");
+        jdbcTemplate.update("DELETE FROM student_archive WHERE email LIKE ?", "%@archive.test");
+        StudentGroupCommitExecutorIntegrationTest.deleteStudents(jdbcTemplate, "%@archive.test");
+        studentResponseCache.invalidate();
+        studentStatistics.invalidate();
+    }
+
+    @Test
+    void shouldArchiveOnlyStudentsDeletedBeforeTheCutoff() {
+        // Given
+        Long old = deletedStudent("old@archive.test", 200);
+        Long recent = deletedStudent("recent@archive.test", 10);
+        Long active = register("active@archive.test");
+
+        // When
+        long archived = studentArchiveJob.archive(LocalDateTime.now().minusDays(90));
+
+        // Then
+        assertThat(archived).isGreaterThanOrEqualTo(1);
+        assertThat(studentRepository.findById(old)).isEmpty();
+        assertThat(studentArchiveRepository.findById(old)).get().extracting(Student::getEmail).isEqualTo("old@archive.test");
+        assertThat(studentRepository.findById(recent)).get().extracting(Student::getDeleted).isEqualTo(true);
+        assertThat(studentRepository.findActiveStudentById(active)).isPresent();
+        assertThat(studentService.getDeletedStudents()).extracting(Student::getEmail)
+                .contains("old@archive.test", "recent@archive.test")
+                .doesNotContain("active@archive.test");
+        assertThat(studentService.getStudentHistory(old)).extracting(StudentHistory::getOperation).containsExactly("DELETE");
+    }
+
+    @Test
+    void shouldArchiveInBatches() {
+        // Given
+        deletedStudent("one@archive.test", 100);
+        deletedStudent("two@archive.test", 100);
+        deletedStudent("three@archive.test", 100);
+        StudentArchiveJob smallBatches = new StudentArchiveJob(studentArchiveRepository, true, 90, 1);
+
+        // When
+        long archived = smallBatches.archive(LocalDateTime.now().minusDays(90));
+
+        // Then
+        assertThat(archived).isGreaterThanOrEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM student WHERE email LIKE '%@archive.test'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void shouldRestoreArchivedStudent() {
+        // Given
+        Long old = deletedStudent("back@archive.test", 200);
+        studentArchiveJob.archive(LocalDateTime.now().minusDays(90));
+
+        // When
+        studentService.restoreStudent(old);
+
+        // Then
+        assertThat(studentRepository.findActiveStudentById(old)).get().extracting(Student::getName).isEqualTo("Student back");
+        assertThat(studentArchiveRepository.findById(old)).isEmpty();
+        assertThat(studentService.getStudents()).extracting(Student::getId).contains(old);
+        assertThatThrownBy(() -> studentService.restoreStudent(old))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not deleted");
+    }
+
+    @Test
+    void shouldRestoreStudentArchivedWhileRestoring() throws Exception {
+        // Given an archive batch that has moved the student but not committed yet
+        Long old = deletedStudent("moving@archive.test", 200);
+        CountDownLatch archived = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    studentArchiveRepository.archiveBatch(LocalDateTime.now().minusDays(90), 1000);
+                    archived.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(archived.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When the restore waits on the row lock until the batch commits
+        CompletableFuture<Void> restore = CompletableFuture.runAsync(() -> studentService.restoreStudent(old));
+        Thread.sleep(200);
+        commit.countDown();
+        batch.get(10, TimeUnit.SECONDS);
+        restore.get(10, TimeUnit.SECONDS);
+
+        // Then it restores the archived copy
+        assertThat(studentRepository.findActiveStudentById(old)).isPresent();
+        assertThat(studentArchiveRepository.findById(old)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepEmailsUniqueAcrossTheArchive() {
+        // Given
+        Long old = deletedStudent("taken@archive.test", 200);
+        Long other = register("other@archive.test");
+        studentArchiveJob.archive(LocalDateTime.now().minusDays(90));
+
+        // Then
+        assertThatThrownBy(() -> register("taken@archive.test"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("email exist");
+        assertThatThrownBy(() -> studentService.updateStudent(other, null, "taken@archive.test"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("email exist");
+        assertThatThrownBy(() -> studentService.restoreStudent(999_999_999L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not exist");
+        assertThat(studentArchiveRepository.findById(old)).isPresent();
+    }
+
+    private Long register(String email) {
+        studentService.addNewStudent(new Student("Student " + email.substring(0, email.indexOf('@')), email,
+                LocalDate.of(2000, 1, 1)));
+        return studentRepository.findStudentByEmail(email).get().getId();
+    }
+
+    // Registers and deletes a student, then backdates the deletion
+    private Long deletedStudent(String email, int daysAgo) {
+        Long id = register(email);
+        studentService.deleteStudent(id);
+        jdbcTemplate.update("UPDATE student_history SET changed_at = ? WHERE student_id = ? AND operation = 'DELETE'",
+                LocalDateTime.now().minusDays(daysAgo), id);
+        return id;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Integration tests for StudentGroupCommitExecutor
+ * Not @Transactional: batches commit on the executor's worker thread
+ */
+@SpringBootTest
+public class StudentGroupCommitExecutorIntegrationTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentResponseCache studentResponseCache;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StudentGroupCommitExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        // Long window so all concurrent calls of a test land in the same batch
+        executor = new StudentGroupCommitExecutor(studentService, transactionManager, true, 500, 64, 10_000);
+        executor.start();
+    }
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        executor.stop();
+        deleteStudents(jdbcTemplate, "%@groupcommit.test");
+        studentResponseCache.invalidate();
+        studentStatistics.invalidate();
+    }
+
+    @Test
+    void shouldApplyConcurrentRegistrationsAndFailOnlyTheDuplicate() throws Exception {
+        // When
+        List<String> results = runConcurrently(List.of(
+                () -> executor.registerStudent(student("Ann", "ann@groupcommit.test")),
+                () -> executor.registerStudent(student("Ben", "ben@groupcommit.test")),
+                () -> executor.registerStudent(student("Ann Again", "ann@groupcommit.test")),
+                () -> executor.registerStudent(student("Cid", "cid@groupcommit.test"))));
+
+        // Then
+        assertThat(results).filteredOn(r -> r.equals("ok")).hasSize(3);
+        assertThat(results).filteredOn(r -> r.contains("email exist")).hasSize(1);
+        assertThat(studentRepository.findStudentByEmail("ben@groupcommit.test")).isPresent();
+        assertThat(studentRepository.findStudentByEmail("cid@groupcommit.test")).isPresent();
+        assertThat(studentRepository.findStudentByEmail("ann@groupcommit.test")).isPresent();
+    }
+
+    @Test
+    void shouldNotCommitAnItemThatFailsAfterWriting() throws Exception {
+        // When a student without dob fails in the response cache, after its insert was queued
+        List<String> results = runConcurrently(List.of(
+                () -> executor.registerStudent(student("Gus", "gus@groupcommit.test")),
+                () -> executor.registerStudent(new Student("No Dob", "nodob@groupcommit.test", null)),
+                () -> executor.registerStudent(student("Hal", "hal@groupcommit.test"))));
+
+        // Then only that student fails and nothing of it is committed
+        assertThat(results).filteredOn(r -> r.equals("ok")).hasSize(2);
+        assertThat(studentRepository.findStudentByEmail("gus@groupcommit.test")).isPresent();
+        assertThat(studentRepository.findStudentByEmail("hal@groupcommit.test")).isPresent();
+        assertThat(studentRepository.findStudentByEmail("nodob@groupcommit.test")).isEmpty();
+    }
+
+    @Test
+    void shouldWriteHistoryAndLogsForBatchedUpdatesAndDeletes() throws Exception {
+        // Given
+        studentService.addNewStudent(student("Dee", "dee@groupcommit.test"));
+        studentService.addNewStudent(student("Eve", "eve@groupcommit.test"));
+        Long dee = studentRepository.findStudentByEmail("dee@groupcommit.test").get().getId();
+        Long eve = studentRepository.findStudentByEmail("eve@groupcommit.test").get().getId();
+
+        // When
+        List<String> results = runConcurrently(List.of(
+                () -> executor.updateStudent(dee, "Dee Updated", null),
+                () -> executor.deleteStudent(eve),
+                () -> executor.deleteStudent(999_999_999L)));
+
+        // Then
+        assertThat(results).filteredOn(r -> r.equals("ok")).hasSize(2);
+        assertThat(results).filteredOn(r -> r.contains("does not exist")).hasSize(1);
+        assertThat(studentRepository.findById(dee).get().getName()).isEqualTo("Dee Updated");
+        assertThat(studentRepository.findById(eve).get().getDeleted()).isTrue();
+        assertThat(studentService.getStudentHistory(dee)).extracting(StudentHistory::getOperation).containsExactly("UPDATE");
+        assertThat(studentService.getStudentHistory(eve)).extracting(StudentHistory::getOperation).containsExactly("DELETE");
+    }
+
+    @Test
+    void shouldFailTheBatchAndKeepTheWorkerAliveWhenAnItemThrowsAnError() throws Exception {
+        // Given a service whose delete of student 1 throws an Error
+        StudentService failing = mock(StudentService.class);
+        doThrow(new AssertionError("boom")).when(failing).applyDeleteStudent(1L);
+        doThrow(new AssertionError("boom")).when(failing).deleteStudent(1L);
+        StudentGroupCommitExecutor erroring = new StudentGroupCommitExecutor(failing, transactionManager, true, 0, 64, 5_000);
+        erroring.start();
+        try {
+            // When / Then the caller gets the Error instead of waiting forever
+            assertThatThrownBy(() -> erroring.deleteStudent(1L)).isInstanceOf(AssertionError.class);
+
+            // And later requests are still batched
+            erroring.deleteStudent(2L);
+            verify(failing).applyDeleteStudent(2L);
+        } finally {
+            erroring.stop();
+        }
+    }
+
+    @Test
+    void shouldStopWaitingAfterTheTimeout() throws Exception {
+        // Given a batch that takes longer than the caller is willing to wait
+        CountDownLatch release = new CountDownLatch(1);
+        StudentService slow = mock(StudentService.class);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(slow).applyDeleteStudent(1L);
+        StudentGroupCommitExecutor timingOut = new StudentGroupCommitExecutor(slow, transactionManager, true, 0, 64, 200);
+        timingOut.start();
+        try {
+            // When / Then
+            assertThatThrownBy(() -> timingOut.deleteStudent(1L))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("timed out");
+        } finally {
+            release.countDown();
+            timingOut.stop();
+        }
+    }
+
+    @Test
+    void shouldRunRequestsDirectlyAfterStop() throws Exception {
+        // Given
+        executor.stop();
+
+        // When
+        executor.registerStudent(student("Fay", "fay@groupcommit.test"));
+
+        // Then
+        assertThat(studentRepository.findStudentByEmail("fay@groupcommit.test")).isPresent();
+    }
+
+    private static Student student(String name, String email) {
+        return new Student(name, email, LocalDate.of(2001, 2, 3));
+    }
+
+    // Runs the calls on separate threads, returns "ok" or the failure message for each
+    private static List<String> runConcurrently(List<Runnable> calls) throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(calls.size());
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (Runnable call : calls) {
+                Callable<String> task = () -> {
+                    try {
+                        call.run();
+                        return "ok";
+                    } catch (IllegalStateException e) {
+                        return e.getMessage();
+                    }
+                };
+                futures.add(threads.submit(task));
+            }
+            List<String> results = new ArrayList<>();
+            for (Future<String> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    static void deleteStudents(JdbcTemplate jdbcTemplate, String emailPattern) {
+        String ids = "SELECT id FROM student WHERE email LIKE ?";
+        jdbcTemplate.update("DELETE FROM activity_log WHERE student_id IN (" + ids + ")", emailPattern);
+        jdbcTemplate.update("DELETE FROM student_history WHERE student_id IN (" + ids + ")", emailPattern);
+        jdbcTemplate.update("DELETE FROM student WHERE email LIKE ?", emailPattern);
+    }
+}
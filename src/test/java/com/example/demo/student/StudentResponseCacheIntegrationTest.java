@@ -0,0 +1,186 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Integration tests for StudentResponseCache
+ * Not @Transactional: the cache only changes after a commit
+ */
+@SpringBootTest
+public class StudentResponseCacheIntegrationTest {
+
+    @Autowired
+    private StudentResponseCache studentResponseCache;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // start from a loaded cache so the tests exercise patching, not the initial load
+        studentResponseCache.invalidate();
+        studentResponseCache.getBody();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        StudentGroupCommitExecutorIntegrationTest.deleteStudents(jdbcTemplate, "%@cache.test");
+        studentResponseCache.invalidate();
+    }
+
+    @Test
+    void shouldFollowCreateUpdateDeleteRestoreAndHardDelete() throws IOException {
+        // Create
+        studentService.addNewStudent(new Student("Ann", "ann@cache.test", LocalDate.of(2000, 1, 1)));
+        Long ann = studentRepository.findStudentByEmail("ann@cache.test").get().getId();
+        assertThat(namesIn(studentResponseCache.getBody())).contains("Ann");
+        assertBodyMatchesDatabase();
+
+        // Update
+        studentService.updateStudent(ann, "Ann Updated", null);
+        assertThat(namesIn(studentResponseCache.getBody())).contains("Ann Updated").doesNotContain("Ann");
+        assertBodyMatchesDatabase();
+
+        // Delete
+        studentService.deleteStudent(ann);
+        assertThat(namesIn(studentResponseCache.getBody())).doesNotContain("Ann Updated");
+        assertBodyMatchesDatabase();
+
+        // Restore
+        studentService.restoreStudent(ann);
+        assertThat(namesIn(studentResponseCache.getBody())).contains("Ann Updated");
+        assertBodyMatchesDatabase();
+
+        // Hard delete
+        jdbcTemplate.update("DELETE FROM activity_log WHERE student_id = ?", ann);
+        jdbcTemplate.update("DELETE FROM student_history WHERE student_id = ?", ann);
+        studentService.hardDeleteStudent(ann);
+        assertThat(namesIn(studentResponseCache.getBody())).doesNotContain("Ann Updated");
+        assertBodyMatchesDatabase();
+    }
+
+    @Test
+    void shouldIgnoreChangesOfRolledBackTransactions() throws IOException {
+        // Given
+        byte[] before = studentResponseCache.getBody();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When
+        transaction.executeWithoutResult(status -> {
+            studentService.addNewStudent(new Student("Ghost", "ghost@cache.test", LocalDate.of(2000, 1, 1)));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(studentResponseCache.getBody()).isEqualTo(before);
+        assertThat(namesIn(studentResponseCache.getBody())).doesNotContain("Ghost");
+    }
+
+    @Test
+    void shouldServeGzipVariantOfTheSameBody() throws IOException {
+        // Given
+        studentService.addNewStudent(new Student("Zip", "zip@cache.test", LocalDate.of(2000, 1, 1)));
+
+        // When
+        byte[] gzip = studentResponseCache.getGzipBody();
+
+        // Then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertThat(in.readAllBytes()).isEqualTo(studentResponseCache.getBody());
+        }
+    }
+
+    @Test
+    void shouldPickUpWritesMadeOutsideThisInstance() throws IOException {
+        // Given
+        byte[] before = studentResponseCache.getBody();
+        studentResponseCache.checkForChanges();
+        assertThat(studentResponseCache.getBody()).isSameAs(before);
+
+        // When another instance (or a script) inserts a student
+        jdbcTemplate.update("INSERT INTO student (id, name, email, dob, deleted) "
+                + "VALUES (nextval('student_sequence'), 'Elsewhere', 'elsewhere@cache.test', DATE '2000-01-01', false)");
+        studentResponseCache.checkForChanges();
+
+        // Then
+        assertThat(namesIn(studentResponseCache.getBody())).contains("Elsewhere");
+        assertBodyMatchesDatabase();
+    }
+
+    @Test
+    void shouldNotBlockChangesWhileReloadingAndKeepThem() throws Exception {
+        // Given a repository whose full load waits until released
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StudentRepository slowRepository = mock(StudentRepository.class);
+        when(slowRepository.findAllActiveStudents()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(new Student(1L, "Loaded", "loaded@cache.test", LocalDate.of(2000, 1, 1)));
+        });
+        StudentResponseCache cache = new StudentResponseCache(slowRepository, objectMapper);
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(cache::getBody);
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // When a change commits during the load
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() ->
+                cache.put(new Student(2L, "During", "during@cache.test", LocalDate.of(2000, 1, 1))));
+
+        // Then it does not wait for the load, and the reloaded body still contains it
+        change.get(5, TimeUnit.SECONDS);
+        release.countDown();
+        assertThat(namesIn(read.get(10, TimeUnit.SECONDS))).containsExactly("Loaded", "During");
+    }
+
+    private List<String> namesIn(byte[] body) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (JsonNode student : objectMapper.readTree(body)) {
+            names.add(student.get("name").asText());
+        }
+        return names;
+    }
+
+    private void assertBodyMatchesDatabase() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode student : objectMapper.readTree(studentResponseCache.getBody())) {
+            ids.add(student.get("id").asLong());
+        }
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(
+                studentRepository.findAllActiveStudents().stream().map(Student::getId).toList());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for StudentStatistics
+ * Not @Transactional: the counters are only updated once a mutation commits
+ */
+@SpringBootTest
+public class StudentStatisticsIntegrationTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentStatistics studentStatistics;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentHistoryRepository studentHistoryRepository;
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @AfterEach
+    void cleanUp() {
+        List<Student> created = studentRepository.findAll().stream()
+                .filter(s -> s.getEmail() != null && s.getEmail().endsWith("@stats.test"))
+                .toList();
+        for (Student student : created) {
+            activityLogRepository.deleteAll(activityLogRepository.findAll().stream()
+                    .filter(log -> student.getId().equals(log.getStudentId()))
+                    .toList());
+            studentHistoryRepository.deleteAll(studentService.getStudentHistory(student.getId()));
+            studentRepository.delete(student);
+        }
+        studentStatistics.invalidate();
+    }
+
+    @Test
+    void shouldCountCreatedDeletedAndRestoredStudents() {
+        // Given
+        StudentStatistics.Snapshot before = studentStatistics.getStatistics(1);
+
+        // When
+        studentService.addNewStudent(new Student("Stats One", "one@stats.test", LocalDate.of(1901, 6, 1)));
+        studentService.addNewStudent(new Student("Stats Two", "two@stats.test", LocalDate.of(1901, 7, 1)));
+        Long id = studentRepository.findStudentByEmail("one@stats.test").get().getId();
+        studentService.deleteStudent(id);
+
+        // Then
+        StudentStatistics.Snapshot afterDelete = studentStatistics.getStatistics(1);
+        assertThat(afterDelete.active()).isEqualTo(before.active() + 1);
+        assertThat(afterDelete.deleted()).isEqualTo(before.deleted() + 1);
+        assertThat(afterDelete.birthYears().get(1901)).isEqualTo(before.birthYears().getOrDefault(1901, 0L) + 1);
+
+        // When
+        studentService.restoreStudent(id);
+
+        // Then
+        StudentStatistics.Snapshot afterRestore = studentStatistics.getStatistics(1);
+        assertThat(afterRestore.active()).isEqualTo(before.active() + 2);
+        assertThat(afterRestore.deleted()).isEqualTo(before.deleted());
+    }
+
+    @Test
+    void shouldCountActionsPerDay() {
+        // Given
+        StudentStatistics.Snapshot before = studentStatistics.getStatistics(1);
+        String today = LocalDate.now().toString();
+
+        // When
+        studentService.addNewStudent(new Student("Stats Three", "three@stats.test", LocalDate.of(2000, 1, 1)));
+        Long id = studentRepository.findStudentByEmail("three@stats.test").get().getId();
+        studentService.updateStudent(id, "Stats Three Updated", null);
+
+        // Then
+        StudentStatistics.Snapshot after = studentStatistics.getStatistics(1);
+        assertThat(after.actionsPerDay().get("CREATE").get(today))
+                .isEqualTo(countFor(before, "CREATE", today) + 1);
+        assertThat(after.actionsPerDay().get("UPDATE").get(today))
+                .isEqualTo(countFor(before, "UPDATE", today) + 1);
+    }
+
+    @Test
+    void shouldMatchDatabaseAfterReconcile() {
+        // Given
+        studentStatistics.getStatistics(1);
+        studentService.addNewStudent(new Student("Stats Four", "four@stats.test", LocalDate.of(1995, 3, 3)));
+        Long id = studentRepository.findStudentByEmail("four@stats.test").get().getId();
+        studentService.deleteStudent(id);
+        StudentStatistics.Snapshot incremental = studentStatistics.getStatistics(30);
+
+        // When
+        studentStatistics.reconcile();
+
+        // Then
+        StudentStatistics.Snapshot reconciled = studentStatistics.getStatistics(30);
+        assertThat(incremental.active()).isEqualTo(reconciled.active());
+        assertThat(incremental.deleted()).isEqualTo(reconciled.deleted());
+        assertThat(incremental.ageDistribution()).isEqualTo(reconciled.ageDistribution());
+        assertThat(incremental.actionsPerDay()).isEqualTo(reconciled.actionsPerDay());
+    }
+
+    @Test
+    void shouldCountChangesCommittedDuringReconcileExactlyOnce() throws Exception {
+        // Given
+        studentStatistics.getStatistics(1);
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> registrations = new ArrayList<>();
+
+        // When students register while the counters are rebuilt over and over
+        try {
+            for (int i = 0; i < 40; i++) {
+                String email = "race" + i + "@stats.test";
+                registrations.add(writers.submit(() -> studentService.addNewStudent(
+                        new Student("Stats Race", email, LocalDate.of(1990, 1, 1)))));
+            }
+            while (registrations.stream().anyMatch(f -> !f.isDone())) {
+                studentStatistics.reconcile();
+            }
+            for (Future<?> registration : registrations) {
+                registration.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdown();
+        }
+
+        // Then the incremental counters equal a fresh count of the database
+        StudentStatistics.Snapshot incremental = studentStatistics.getStatistics(1);
+        studentStatistics.invalidate();
+        StudentStatistics.Snapshot fresh = studentStatistics.getStatistics(1);
+        assertThat(incremental.active()).isEqualTo(fresh.active());
+        assertThat(incremental.birthYears()).isEqualTo(fresh.birthYears());
+        assertThat(incremental.actionsPerDay()).isEqualTo(fresh.actionsPerDay());
+    }
+
+    private static long countFor(StudentStatistics.Snapshot snapshot, String action, String day) {
+        return snapshot.actionsPerDay().getOrDefault(action, Map.of()).getOrDefault(day, 0L);
+    }
+}
@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# Startup Benchmark - time from JVM launch to first successful request
+# Compares the plain jar with the fast startup mode (AOT + AppCDS + lazy init).
+# Needs PostgreSQL running with the schema already migrated (start the app normally once).
+#
+# Usage: ./startup_benchmark.sh [runs]
+
+RUNS=${1:-5}
+PORT=8080
+URL="http://localhost:$PORT/api/v1/student?fields=id"
+JAR=target/demo-0.0.1-SNAPSHOT.jar
+EXPLODED=target/fast-startup
+ARCHIVE=$EXPLODED/app.jsa
+MAIN_CLASS=com.example.demo.DemoApplication
+
+FAST_OPTS="-Dspring.aot.enabled=true -Dspring.profiles.active=fast"
+
+set -e
+
+echo "=========================================="
+echo "STARTUP BENCHMARK ($RUNS runs per mode)"
+echo "=========================================="
+
+# ============================================
+# 1. BUILD
+# ============================================
+echo -e "\n[STEP 1] Building with the fast-startup profile..."
+./mvnw -q -Pfast-startup package -DskipTests
+
+# CDS cannot archive classes loaded from nested jars, so run from an exploded layout
+rm -rf $EXPLODED
+mkdir -p $EXPLODED
+(cd $EXPLODED && jar -xf ../../$JAR)
+CLASSPATH="$EXPLODED/BOOT-INF/classes:$EXPLODED/BOOT-INF/lib/*"
+
+set +e
+
+# Starts the given command, waits for the first 2xx response, prints elapsed ms and stops it
+time_to_first_request() {
+  local start end pid
+  start=$(date +%s%N)
+  "$@" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 $pid 2> /dev/null; then
+      echo "FAILED"
+      return 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  kill -TERM $pid
+  wait $pid 2> /dev/null
+  echo $(( (end - start) / 1000000 ))
+}
+
+# ============================================
+# 2. TRAINING RUN
+# ============================================
+echo -e "\n[STEP 2] Training run to create the AppCDS archive..."
+time_to_first_request java -XX:ArchiveClassesAtExit=$ARCHIVE $FAST_OPTS -cp "$CLASSPATH" $MAIN_CLASS > /dev/null
+ls -lh $ARCHIVE
+
+# ============================================
+# 3. MEASURE
+# ============================================
+run_mode() {
+  local label=$1
+  shift
+  local total=0 ms
+  echo -e "\n→ $label"
+  for i in $(seq 1 $RUNS); do
+    ms=$(time_to_first_request "$@")
+    echo "  run $i: $ms ms"
+    total=$((total + ms))
+  done
+  echo "  average: $((total / RUNS)) ms"
+}
+
+echo -e "\n[STEP 3] Measuring time to first successful request..."
+run_mode "Default (java -jar)" java -jar $JAR
+run_mode "Fast startup (AOT + lazy init)" java $FAST_OPTS -cp "$CLASSPATH" $MAIN_CLASS
+run_mode "Fast startup (AOT + lazy init + AppCDS)" java -XX:SharedArchiveFile=$ARCHIVE $FAST_OPTS -cp "$CLASSPATH" $MAIN_CLASS
+
+echo -e "\n=========================================="
+echo "STARTUP BENCHMARK COMPLETED"
+echo "=========================================="